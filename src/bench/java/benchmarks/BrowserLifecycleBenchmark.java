@@ -0,0 +1,42 @@
+package benchmarks;
+
+import configurations.BaseTest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one BaseTest setUp() + tearDown() cycle, with the pooled browser against
+ * launching a fresh Playwright driver and browser for every test.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BrowserLifecycleBenchmark extends BaseTest {
+
+    @Param({"true", "false"})
+    public boolean pooled;
+
+    @Override
+    protected boolean useBrowserPool() {
+        return pooled;
+    }
+
+    @Benchmark
+    public void setUpAndTearDown() {
+        setUp();
+        tearDown();
+    }
+}
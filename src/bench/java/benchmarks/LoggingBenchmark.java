@@ -0,0 +1,53 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logging cost of one BasePage action (the lines click() writes) through the real logback.xml,
+ * on 4 threads, with LOG_MODE=sync against the default async pipeline. The loop logs faster than
+ * the console drains, so the async variant also shows the cost of waiting on a full queue (LOG_OVERFLOW=block).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+public class LoggingBenchmark {
+    //Under the "configurations" logger, which logs at DEBUG like the page objects
+    private static final Logger logger = LoggerFactory.getLogger("configurations.LoggingBenchmark");
+    private static final String SELECTOR = "input[data-test='login-button']";
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Dlogback.configurationFile=logback.xml", "-DLOGS_DIR=target/bench-logs",
+            "-DLOG_MODE=sync"})
+    public void syncLogging() {
+        logAction();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Dlogback.configurationFile=logback.xml", "-DLOGS_DIR=target/bench-logs",
+            "-DLOG_MODE=async"})
+    public void asyncLogging() {
+        logAction();
+    }
+
+    private static void logAction() {
+        logger.info("Clicking element: {}", SELECTOR);
+        logger.debug("Waiting for element: {}", SELECTOR);
+        logger.info("Element clicked successfully: {}", SELECTOR);
+    }
+}
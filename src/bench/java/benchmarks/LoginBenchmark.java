@@ -0,0 +1,87 @@
+package benchmarks;
+
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Page;
+import configurations.BrowserPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import pages.LoginPage;
+import utilities.LocalSwagLabsServer;
+import utilities.Config;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full login and page navigation, comparing the readiness-based waits of the page
+ * objects ("readiness") with waiting for the load event after each step ("load").
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LoginBenchmark {
+
+    @Param({"readiness", "load"})
+    public String waitStrategy;
+
+    private String baseUrl;
+    private BrowserContext context;
+    private Page page;
+    private LoginPage loginPage;
+
+    @Setup(Level.Trial)
+    public void openContext() {
+        baseUrl = LocalSwagLabsServer.start().getBaseUrl();
+        context = BrowserPool.getBrowser().newContext();
+        page = context.newPage();
+        loginPage = new LoginPage(page);
+    }
+
+    @Setup(Level.Invocation)
+    public void logOut() {
+        context.clearCookies();
+        page.navigate(baseUrl);
+    }
+
+    @TearDown(Level.Trial)
+    public void closeContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean loginWithCredentials() {
+        if ("load".equals(waitStrategy)) {
+            loginPage.enterUsername(Config.VALID_USERNAME);
+            loginPage.enterPassword(Config.VALID_PASSWORD);
+            loginPage.clickLoginButton();
+            page.waitForURL("**" + Config.INVENTORY_PAGE_ENDPOINT + "**");
+            page.waitForLoadState();
+        } else {
+            loginPage.loginWithCredentials(Config.VALID_USERNAME, Config.VALID_PASSWORD);
+        }
+        return loginPage.isLoginSuccessful();
+    }
+
+    @Benchmark
+    public void navigateToLoginPage() {
+        if ("load".equals(waitStrategy)) {
+            page.navigate(baseUrl);
+            page.waitForLoadState();
+        } else {
+            loginPage.navigateTo(baseUrl);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package benchmarks;
+
+import com.microsoft.playwright.BrowserContext;
+import configurations.BrowserPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import pages.LoginPage;
+import utilities.LocalSwagLabsServer;
+
+import java.util.concurrent.TimeUnit;
+
+//Latency of single BasePage actions on the local stand-in login page
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PageActionBenchmark {
+    private String baseUrl;
+    private BrowserContext context;
+    private LoginPage loginPage;
+
+    @Setup(Level.Trial)
+    public void openLoginPage() {
+        baseUrl = LocalSwagLabsServer.start().getBaseUrl();
+        context = BrowserPool.getBrowser().newContext();
+        loginPage = new LoginPage(context.newPage());
+        loginPage.navigateTo(baseUrl);
+    }
+
+    @TearDown(Level.Trial)
+    public void closeContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public void fill() {
+        loginPage.fill(LoginPage.USERNAME_INPUT, "standard_user");
+    }
+
+    @Benchmark
+    public void click() {
+        loginPage.click(LoginPage.USERNAME_INPUT);
+    }
+
+    @Benchmark
+    public String getText() {
+        return loginPage.getPageTitle();
+    }
+
+    @Benchmark
+    public boolean areAllLoginElementsVisible() {
+        return loginPage.areAllLoginElementsVisible();
+    }
+}
@@ -1,58 +1,138 @@
 package configurations;
 
+import com.microsoft.playwright.options.LoadState;
 import com.microsoft.playwright.options.WaitForSelectorState;
+import com.microsoft.playwright.options.WaitUntilState;
 import utilities.Config;
+import utilities.Metrics;
 import com.microsoft.playwright.Page;
 import com.microsoft.playwright.PlaywrightException;
 import com.microsoft.playwright.Locator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 public class BasePage {
     protected Page page;
     protected static final Logger logger = LoggerFactory.getLogger(BasePage.class);
+    public static final String ACTION_METRIC = "page_action";
+
+    //Reads the requested properties of every selector, in document order of the arguments
+    private static final String QUERY_SCRIPT = "query => query.selectors.map(selector => {\n"
+            + "  const el = document.querySelector(selector);\n"
+            + "  const state = { found: !!el };\n"
+            + "  if (!el) return state;\n"
+            + "  const props = query.properties;\n"
+            + "  if (props.includes('VISIBLE')) state.visible = el.getClientRects().length > 0 && getComputedStyle(el).visibility !== 'hidden';\n"
+            + "  if (props.includes('ENABLED')) state.enabled = !el.disabled && !el.closest('fieldset:disabled');\n"
+            + "  if (props.includes('TEXT')) state.text = (el.textContent || '').trim();\n"
+            + "  if (props.includes('VALUE')) state.value = 'value' in el ? el.value : null;\n"
+            + "  return state;\n"
+            + "})";
+
+    //Locators are reused until the main frame navigates away
+    private final Map<String, Locator> locatorCache = new HashMap<>();
+    private final Set<String> declaredSelectors = new HashSet<>();
 
     public BasePage(Page page) {
         if(page == null){
             throw new IllegalArgumentException("Page object cannot be null");
         }
         this.page = page;
+        WaitEngine.track(page);
+        page.onFrameNavigated(frame -> {
+            if (frame == page.mainFrame()) {
+                locatorCache.clear();
+            }
+        });
+    }
+
+    //Validates the page object's selectors once, so later lookups skip the checks
+    protected void declareSelectors(String... selectors) {
+        for (String selector : selectors) {
+            validateSelector(selector);
+            declaredSelectors.add(selector);
+        }
+        logger.debug("Declared {} selector(s) for {}", selectors.length, getClass().getSimpleName());
+    }
+
+    //Signal that the page is ready to use; page objects override this with something cheaper than the load event
+    protected ReadinessCondition readinessCondition() {
+        return ReadinessCondition.loadState(LoadState.LOAD);
     }
 
     public void navigateTo(String url) {
+        long start = System.nanoTime();
         try {
             if (url == null || url.isEmpty()) {
                 throw new IllegalArgumentException("URL cannot be null or empty");
             }
             logger.info("Navigating to URL: {}", url);  //{}Placeholder for variable
-            page.navigate(url);
+            //Only wait for the response here, readiness is decided by the page object
+            page.navigate(url, new Page.NavigateOptions().setWaitUntil(WaitUntilState.COMMIT));
             waitForPageLoad();
             logger.info("Page loaded successfully: {}", url);
         } catch (PlaywrightException e) {
             logger.error("Failed to navigate to URL: {}", url, e);
             throw new RuntimeException("Navigation failed to: " + url, e);
+        } finally {
+            recordAction("navigateTo", url, start);
         }
     }
 
     public void waitForPageLoad() {
+        long start = System.nanoTime();
         try {  //Try to do something
             logger.debug("⏳ Waiting for page load...");
-            page.waitForLoadState();  //Wait until page is fully loaded
-            logger.debug("Page load completed");  // DEBUG helps understand what happened, DEBUG info helps trace the problem
+            WaitEngine.WaitResult result = WaitEngine.await(page, readinessCondition(), Config.getBrowserTimeout());  //Wait until page is ready
+            logger.debug("Page load completed: {}", result);  // DEBUG helps understand what happened, DEBUG info helps trace the problem
         } catch (PlaywrightException e) {  //If it fails, catch the error and handle it
             logger.error("Page load timeout", e);
             throw new RuntimeException("Page load timeout", e);  //Throw RuntimeException and stop test
+        } finally {
+            recordAction("waitForPageLoad", null, start);
+        }
+    }
+
+    //Waits for whichever of the named outcomes happens first, e.g. success page vs error banner
+    protected WaitEngine.WaitResult waitForOutcome(Map<String, ReadinessCondition> outcomes) {
+        try {
+            WaitEngine.WaitResult result = WaitEngine.race(page, outcomes, Config.getBrowserTimeout());
+            logger.info("Outcome settled: {}", result);
+            return result;
+        } catch (PlaywrightException e) {
+            logger.error("None of the outcomes {} happened", outcomes.keySet(), e);
+            throw new RuntimeException("Outcome wait timeout: " + outcomes.keySet(), e);
         }
     }
 
     protected Locator getLocator(String selector) { //explain.....
+        Locator locator = locatorCache.get(selector);
+        if (locator == null) {
+            if (!declaredSelectors.contains(selector)) {
+                validateSelector(selector);
+            }
+            locator = page.locator(selector).first();
+            locatorCache.put(selector, locator);
+        }
+        return locator;
+    }
+
+    private static void validateSelector(String selector) {
         if (selector == null || selector.isEmpty()) {
             throw new IllegalArgumentException("Selector cannot be null or empty");
         }
-        return page.locator(selector).first();
     }
 
     public void click(String selector) {
+        long start = System.nanoTime();
         try {
             logger.info("Clicking element: {}", selector);
             Locator locator = getLocator(selector);
@@ -62,10 +142,13 @@ public class BasePage {
         } catch (PlaywrightException e) {
             logger.error("⚠️ Failed to click element: {}", selector, e);
             throw new RuntimeException("Click failed on: " + selector, e);
+        } finally {
+            recordAction("click", selector, start);
         }
     }
 
     public void fill(String selector, String text) {
+        long start = System.nanoTime();
         try {
             if (text == null) {
                 logger.warn("Filling with null text: {}", selector);
@@ -85,10 +168,13 @@ public class BasePage {
         } catch (PlaywrightException e) {
             logger.error("Failed to fill element: {}", selector, e);
             throw new RuntimeException("Fill failed on: " + selector, e);
+        } finally {
+            recordAction("fill", selector, start);
         }
     }
 
     public void clearField(String selector) {
+        long start = System.nanoTime();
         try {
             logger.info("Clearing field: {}", selector);
             Locator locator = getLocator(selector);
@@ -98,10 +184,13 @@ public class BasePage {
         } catch (PlaywrightException e) {
             logger.error("Failed to clear field: {}", selector, e);
             throw new RuntimeException("Clear failed on: " + selector, e);
+        } finally {
+            recordAction("clearField", selector, start);
         }
     }
 
     public String getText(String selector) {
+        long start = System.nanoTime();
         try {
             logger.debug("Getting text from element: {}", selector);
             Locator locator = getLocator(selector);
@@ -112,10 +201,13 @@ public class BasePage {
         } catch (PlaywrightException e) {
             logger.error("Failed to get text from element: {}", selector, e);
             throw new RuntimeException("getText failed on: " + selector, e);
+        } finally {
+            recordAction("getText", selector, start);
         }
     }
 
     public String getInputValue(String selector) {
+        long start = System.nanoTime();
         try {
             logger.debug("Getting input value from: {}", selector);
             Locator locator = getLocator(selector);
@@ -126,21 +218,27 @@ public class BasePage {
         } catch (PlaywrightException e) {
             logger.error("Failed to get input value from: {}", selector, e);
             throw new RuntimeException("getInputValue failed on: " + selector, e);
+        } finally {
+            recordAction("getInputValue", selector, start);
         }
     }
 
     public boolean isVisible(String selector) {
+        long start = System.nanoTime();
         try {
-            boolean visible = page.locator(selector).first().isVisible();
+            boolean visible = getLocator(selector).isVisible();
             logger.debug("Element visibility check: {} -> {}", selector, visible);
             return visible;
         } catch (PlaywrightException e) {
             logger.debug("Element not visible or not found: {}", selector);
             return false;
+        } finally {
+            recordAction("isVisible", selector, start);
         }
     }
 
     public boolean isEnabled(String selector) {
+        long start = System.nanoTime();
         try {
             boolean enabled = getLocator(selector).isEnabled();
             logger.debug("Element enabled check: {} -> {}", selector, enabled);
@@ -148,13 +246,48 @@ public class BasePage {
         } catch (PlaywrightException e) {
             logger.debug("Failed to check if element is enabled: {}", selector);
             return false;
+        } finally {
+            recordAction("isEnabled", selector, start);
+        }
+    }
+
+    //Reads state of several elements in one evaluation inside the page (CSS selectors only)
+    @SuppressWarnings("unchecked")
+    public ElementSnapshot queryElements(List<String> selectors, ElementProperty... properties) {
+        List<String> propertyNames = new ArrayList<>();
+        for (ElementProperty property : properties) {
+            propertyNames.add(property.name());
         }
+        Map<String, Object> query = new HashMap<>();
+        query.put("selectors", selectors);
+        query.put("properties", propertyNames);
+
+        long start = System.nanoTime();
+        try {
+            List<Map<String, Object>> results = (List<Map<String, Object>>) page.evaluate(QUERY_SCRIPT, query);
+            Map<String, Map<String, Object>> states = new LinkedHashMap<>();
+            for (int i = 0; i < selectors.size(); i++) {
+                states.put(selectors.get(i), results.get(i));
+            }
+            ElementSnapshot snapshot = new ElementSnapshot(states);
+            logger.debug("Batched query {} -> {}", propertyNames, snapshot);
+            return snapshot;
+        } catch (PlaywrightException e) {
+            logger.error("Failed batched query on: {}", selectors, e);
+            throw new RuntimeException("queryElements failed on: " + selectors, e);
+        } finally {
+            recordAction("queryElements", String.join(",", selectors), start);
+        }
+    }
+
+    private static void recordAction(String action, String target, long startNanos) {
+        Metrics.record(ACTION_METRIC, action, target, System.nanoTime() - startNanos);
     }
 
     protected void waitForElementVisibility(Locator locator) {
         try {
             locator.waitFor(new Locator.WaitForOptions()
-                    .setTimeout(Config.EXPLICIT_WAIT));
+                    .setTimeout(Config.getExplicitWait()));
         } catch (PlaywrightException e) {
             logger.warn("Element did not become visible within timeout");
             throw e;
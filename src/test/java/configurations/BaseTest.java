@@ -1,37 +1,72 @@
 package configurations;
 
+import utilities.ArtifactWriter;
 import utilities.Config;
+import utilities.Metrics;
 import com.microsoft.playwright.*;  //Bring in Playwright tools
 import org.junit.jupiter.api.AfterEach;  //Import @AfterEach annotation
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 import static utilities.Config.*;
 
+@ExtendWith({TestLogContextExtension.class, TestLogCaptureExtension.class, FailureArtifactsExtension.class,
+        RetryExtension.class, FailFastExtension.class, BrowserEngineExtension.class})
 public class BaseTest {
     protected static final Logger logger = LoggerFactory.getLogger(BaseTest.class);  //Create a logger to record events
     private static final String SEPARATOR = "=".repeat(50);
+    public static final String LIFECYCLE_METRIC = "lifecycle_phase";
+    private static final RouteFilter ROUTE_FILTER = RouteFilter.fromConfig();
+    private static final TracePolicy TRACE_POLICY = TracePolicy.fromConfig();
+    private static final int MAX_CONSOLE_MESSAGES = 1000;
     protected static final String TEST_FAILED_MESSAGE = "❌ TEST FAILED" + "-".repeat(50);
 
     protected Browser browser;
     protected Page page;
     protected BrowserContext context;
     protected Playwright playwright;
+    //Driver process of a Playwright instance this test created itself (REUSE_BROWSER=false)
+    private ProcessHandle driverProcess;
+    protected RouteStats routeStats = new RouteStats();
+    private boolean browserPooled;
+    //Playwright objects are thread-confined: the thread that set them up must also tear them down
+    private Thread ownerThread;
+    //Engine of this test; set per launcher by BrowserEngineExtension in matrix runs
+    private String browserName = Config.getBrowser();
+    private boolean traced;
+    //Traces of contexts this test replaced before its last one, saved with a #n suffix
+    private int traceSegments;
+    //Reported to BrowserPool after the test, to decide whether the browser is recycled
+    private int contextsOpened;
+    //A close call hung and its driver was killed: no more Playwright calls on this browser
+    private boolean closeHung;
+    private boolean failed;
+    //Browser console output of this test, saved with the failure artifacts
+    private final List<String> consoleMessages = new ArrayList<>();
 
     @BeforeEach  //Annotation (tells JUnit to run this before each test)
     public void setUp() {
         try {
             logTestStartInfo();
-            initializePlaywright();
-            initializeBrowser();
-            initializeBrowserContext();
-            initializePage();
+            ownerThread = Thread.currentThread();
+            browserPooled = useBrowserPool();
+            traced = TRACE_POLICY != null && TRACE_POLICY.shouldTrace();
+            Metrics.time(LIFECYCLE_METRIC, "initializePlaywright", this::initializePlaywright);
+            Metrics.time(LIFECYCLE_METRIC, "initializeBrowser", this::initializeBrowser);
+            Metrics.time(LIFECYCLE_METRIC, "initializeBrowserContext", this::initializeBrowserContext);
+            Metrics.time(LIFECYCLE_METRIC, "initializePage", this::initializePage);
             logger.info("Browser initialized successfully");
             logger.info(SEPARATOR);
         } catch (Exception e) {
             logger.error("Failed to initialize browser", e);
-            cleanupResources();
+            Metrics.time(LIFECYCLE_METRIC, "cleanupResources", this::cleanupResources);
             throw new RuntimeException("Browser initialization failed", e);
         }
     }
@@ -42,7 +77,11 @@ public class BaseTest {
         logger.info("Starting test tear down...");
 
         try {
-            cleanupResources();
+            if (ROUTE_FILTER != null) {
+                logger.info("Network filter: {}", routeStats);
+            }
+            stopTracing(failed, "");
+            Metrics.time(LIFECYCLE_METRIC, "cleanupResources", this::cleanupResources);
             logger.info("Tear down completed successfully");
             logger.info(SEPARATOR);
         } catch (Exception e) {
@@ -53,107 +92,227 @@ public class BaseTest {
     private void logTestStartInfo() {
         logger.info(SEPARATOR);
         logger.info("Test Configuration:");
-        logger.info("Browser: {}", Config.DEFAULT_BROWSER);
+        logger.info("Browser: {}", browserName);
         logger.info("Headless Mode: {}", isHeadlessMode());
-        logger.info("Viewport: {}x{}", Config.VIEWPORT_WIDTH, Config.VIEWPORT_HEIGHT);
+        logger.info("Viewport: {}x{}", Config.getViewportWidth(), Config.getViewportHeight());
         logger.info("Base URL: {}", getBaseUrl());
+        logger.info("Browser Reuse: {}", isBrowserReuseEnabled());
+        logger.info("Tracing: {}", TRACE_POLICY != null ? TRACE_POLICY : "off");
+    }
+
+    void setBrowserName(String browserName) {
+        this.browserName = browserName;
+    }
+
+    protected String getBrowserName() {
+        return browserName;
+    }
+
+    protected boolean useBrowserPool() {
+        return isBrowserReuseEnabled();
     }
 
     private void initializePlaywright() {
+        if (browserPooled) {
+            logger.debug("Using pooled Playwright instance");
+            this.playwright = BrowserPool.getPlaywright(browserName);
+            return;
+        }
         logger.debug("Creating Playwright instance");
-        this.playwright = Playwright.create();
+        BrowserSupervisor.Driver driver = BrowserSupervisor.startDriver();
+        this.playwright = driver.playwright;
+        this.driverProcess = driver.process;
     }
 
     private void initializeBrowser() {
-        logger.debug("Initializing {} browser", Config.DEFAULT_BROWSER);
-        BrowserType.LaunchOptions launchOptions = new BrowserType.LaunchOptions()
-                .setHeadless(isHeadlessMode());
-
-        this.browser = switch (Config.DEFAULT_BROWSER.toLowerCase()) {
-            case "firefox" -> {
-                logger.info("Launching Firefox browser");
-                yield playwright.firefox().launch(launchOptions);
-            }
-            case "webkit" -> {
-                logger.info("Launching WebKit browser");
-                yield playwright.webkit().launch(launchOptions);
-            }
-            default -> {
-                logger.info("Launching Chromium browser");
-                yield playwright.chromium().launch(launchOptions);
-            }
-        };
+        if (browserPooled) {
+            logger.debug("Using pooled browser");
+            this.browser = BrowserPool.getBrowser(browserName);
+            return;
+        }
+        this.browser = BrowserPool.launchBrowser(playwright, browserName);
     }
 
     private void initializeBrowserContext() {
         logger.debug("Creating browser context with viewport: {}x{}",
-                Config.VIEWPORT_WIDTH, Config.VIEWPORT_HEIGHT);
+                Config.getViewportWidth(), Config.getViewportHeight());
 
-        this.context = browser.newContext(
-                new Browser.NewContextOptions()
-                        .setViewportSize(Config.VIEWPORT_WIDTH, Config.VIEWPORT_HEIGHT)
-                        .setIgnoreHTTPSErrors(true)
-        );
+        this.context = browser.newContext(newContextOptions());
+        contextsOpened++;
+        configureContext(context);
+        startTracing();
     }
 
-    private void initializePage() {
-        logger.debug("Creating new page");
-        this.page = context.newPage();
-        page.setDefaultTimeout(Config.BROWSER_TIMEOUT);
-        page.setDefaultNavigationTimeout(Config.BROWSER_TIMEOUT);
+    private void startTracing() {
+        if (traced) {
+            TRACE_POLICY.start(context);
+        }
     }
 
-    private void cleanupResources() {
-        if (page != null) {
+    //Must run before the context is closed, which would drop the trace
+    private void stopTracing(boolean contextFailed, String suffix) {
+        if (traced && context != null) {
             try {
-                page.close();
-                logger.debug("Page closed");
+                TRACE_POLICY.stop(context, MDC.get(TestLogContextExtension.TEST_ID_KEY) + suffix, contextFailed);
             } catch (Exception e) {
-                logger.warn("Error closing page", e);
+                logger.warn("Failed to stop tracing", e);
             }
         }
+    }
 
-        if (context != null) {
-            try {
-                context.close();
-                logger.debug("Context closed");
-            } catch (Exception e) {
-                logger.warn("Error closing context", e);
-            }
+    //Applied to every context this test creates, before any page is opened
+    private void configureContext(BrowserContext context) {
+        if (ROUTE_FILTER != null) {
+            ROUTE_FILTER.install(context, routeStats);
         }
+        context.onConsoleMessage(message -> {
+            synchronized (consoleMessages) {
+                if (consoleMessages.size() < MAX_CONSOLE_MESSAGES) {
+                    consoleMessages.add("[" + message.type() + "] " + message.text() + " (" + message.location() + ")");
+                }
+            }
+        });
+    }
 
-        if (browser != null) {
-            try {
-                browser.close();
-                logger.debug("Browser closed");
-            } catch (Exception e) {
-                logger.warn("Error closing browser", e);
+    protected Browser.NewContextOptions newContextOptions() {
+        return new Browser.NewContextOptions()
+                .setViewportSize(Config.getViewportWidth(), Config.getViewportHeight())
+                .setIgnoreHTTPSErrors(true);
+    }
+
+    private void initializePage() {
+        logger.debug("Creating new page");
+        this.page = context.newPage();
+        applyPageTimeouts(page);
+    }
+
+    private static void applyPageTimeouts(Page page) {
+        page.setDefaultTimeout(Config.getBrowserTimeout());
+        page.setDefaultNavigationTimeout(Config.getBrowserTimeout());
+    }
+
+    //Replaces the current page with one already logged in, using the cached storage state of the user
+    protected void loginWithCachedSession(String username, String password) {
+        logger.info("Switching to cached session for user: {}", username);
+        stopTracing(failed, "#" + (++traceSegments));
+        closePageAndContext();
+        this.page = StorageStateCache.openAuthenticatedPage(browser, newContextOptions(),
+                this::configureContext, username, password);
+        this.context = page.context();
+        contextsOpened++;
+        applyPageTimeouts(page);
+        startTracing();
+    }
+
+    //Called by RetryExtension: keeps the browser, replaces the context and page of the failed attempt
+    void prepareRetry() {
+        Metrics.time(LIFECYCLE_METRIC, "prepareRetry", () -> {
+            //Trace of the failed attempt
+            stopTracing(true, "#" + (++traceSegments));
+            closePageAndContext();
+            synchronized (consoleMessages) {
+                consoleMessages.clear();
+            }
+            if (closeHung || !browser.isConnected()) {
+                logger.warn("Browser {}, getting a new one for the retry", closeHung ? "hung" : "disconnected");
+                closeBrowser();
+                initializePlaywright();
+                initializeBrowser();
             }
+            initializeBrowserContext();
+            initializePage();
+        });
+    }
+
+    private void cleanupResources() {
+        if (ownerThread != null && ownerThread != Thread.currentThread()) {
+            logger.warn("Cleaning up resources of thread {} from thread {}",
+                    ownerThread.getName(), Thread.currentThread().getName());
         }
 
-        if (playwright != null) {
-            try {
-                playwright.close();
-                logger.debug("Playwright closed");
-            } catch (Exception e) {
-                logger.warn("Error closing Playwright", e);
+        closePageAndContext();
+
+        //Pooled browser and Playwright stay open for the next test on this thread, unless worn out
+        closeBrowser();
+    }
+
+    //Gives a pooled browser back to the pool, or closes the browser and Playwright this test created
+    private void closeBrowser() {
+        if (browserPooled) {
+            if (browser != null) {
+                BrowserPool.release(browserName, contextsOpened, closeHung);
+            }
+        } else if (closeHung) {
+            //The watchdog already killed the driver; Playwright is not called again
+            BrowserSupervisor.kill(driverProcess);
+        } else {
+            if (browser != null) {
+                closeHung = !BrowserSupervisor.close("Browser", browser::close, driverProcess);
+            }
+            if (playwright != null && !closeHung) {
+                BrowserSupervisor.close("Playwright", playwright::close, driverProcess);
             }
         }
+        contextsOpened = 0;
+        closeHung = false;
+        browser = null;
+        playwright = null;
+        driverProcess = null;
+    }
+
+    //A close call that hangs gets its driver killed after a timeout; nothing else is closed on that browser
+    private void closePageAndContext() {
+        ProcessHandle driver = browserPooled ? BrowserPool.driver(browserName) : driverProcess;
+        if (page != null && !closeHung) {
+            closeHung = !BrowserSupervisor.close("Page", page::close, driver);
+        }
+        page = null;
+
+        if (context != null && !closeHung) {
+            closeHung = !BrowserSupervisor.close("Context", context::close, driver);
+        }
+        context = null;
     }
 
     protected void takeScreenshot(String fileName) {
         if (page != null) {
             try {
-                String screenshotPath = "screenshots/" + fileName + ".png";
-                page.screenshot(new Page.ScreenshotOptions()
-                        .setPath(java.nio.file.Paths.get(screenshotPath)));
-                logger.info("Screenshot saved: {}", screenshotPath);
+                byte[] screenshot = page.screenshot();
+                ArtifactWriter.write(ArtifactWriter.pathFor(fileName, ".png"), screenshot);
+                logger.info("Screenshot queued: {}", fileName);
             } catch (Exception e) {
                 logger.warn("Failed to take screenshot", e);
             }
         }
     }
 
+    //Called by FailureArtifactsExtension before tearDown closes the page; only the capture runs on this thread.
+    //Marks the test as failed, which also keeps its trace
+    void captureFailureArtifacts(String name) {
+        failed = true;
+        if (page == null) {
+            logger.warn("No page to capture failure artifacts from");
+            return;
+        }
+        try {
+            ArtifactWriter.write(ArtifactWriter.pathFor(name, ".png"),
+                    page.screenshot(new Page.ScreenshotOptions().setFullPage(true)));
+        } catch (Exception e) {
+            logger.warn("Failed to capture failure screenshot", e);
+        }
+        try {
+            ArtifactWriter.write(ArtifactWriter.pathFor(name, ".html"), page.content().getBytes(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            logger.warn("Failed to capture page DOM", e);
+        }
+        String console;
+        synchronized (consoleMessages) {
+            console = String.join(System.lineSeparator(), consoleMessages);
+        }
+        ArtifactWriter.write(ArtifactWriter.pathFor(name, ".console.log"), console.getBytes(StandardCharsets.UTF_8));
+        logger.info("Failure artifacts queued for: {} (url: {})", name, getCurrentUrl());
+    }
+
     protected String getCurrentUrl() {
         return page != null ? page.url() : "";
     }
@@ -0,0 +1,25 @@
+package configurations;
+
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.util.Optional;
+
+/**
+ * Gives a {@link BaseTest} the browser engine of the launcher that runs it: the
+ * {@link MatrixRunner#BROWSER_PARAMETER} configuration parameter, or BROWSER from Config otherwise.
+ */
+public class BrowserEngineExtension implements BeforeEachCallback {
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        Object instance = context.getRequiredTestInstance();
+        if (instance instanceof BaseTest) {
+            engine(context).ifPresent(((BaseTest) instance)::setBrowserName);
+        }
+    }
+
+    static Optional<String> engine(ExtensionContext context) {
+        return context.getConfigurationParameter(MatrixRunner.BROWSER_PARAMETER);
+    }
+}
@@ -0,0 +1,291 @@
+package configurations;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserType;
+import com.microsoft.playwright.Playwright;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utilities.Config;
+import utilities.Metrics;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static utilities.Config.isHeadlessMode;
+
+/**
+ * Keeps one Playwright driver and one Browser per worker thread and browser engine for the whole JVM.
+ * Playwright is not thread-safe, so instances are never shared between threads.
+ * A browser is recycled after RECYCLE_AFTER_CONTEXTS contexts, when its processes use more than
+ * RECYCLE_AFTER_MB, or when a close call hung; a crashed browser is replaced on next use. A hung close
+ * has already killed the driver (see {@link BrowserSupervisor}), so that entry is dropped without any
+ * further Playwright call. The test running when a browser crashes still fails; only RetryExtension
+ * (MAX_RETRIES above 0) runs it again on a new browser.
+ * With LANES set (or {@link #useLanes(int)}), there are at most that many browsers per engine instead,
+ * lent to one thread at a time from the first Playwright call of a test until its release, so many
+ * more threads (virtual threads, see VirtualThreadRunner) than browsers can run tests. A lane only
+ * changes hands through a queue, which is the synchronization Playwright needs to be used by
+ * several threads in turn.
+ * Everything still open is closed by a shutdown hook when the JVM exits.
+ */
+public final class BrowserPool {
+    private static final Logger logger = LoggerFactory.getLogger(BrowserPool.class);
+
+    private static final ThreadLocal<Map<String, PooledBrowser>> THREAD_BROWSERS = ThreadLocal.withInitial(HashMap::new);
+    private static final List<PooledBrowser> ALL_BROWSERS = new CopyOnWriteArrayList<>();
+
+    public static final String LANE_WAIT_METRIC = "lane_wait";
+    private static final int LANE_POLL_MILLIS = 100;
+    //0 = one browser per thread and engine
+    private static volatile int laneLimit = Config.getLanes();
+    private static final Map<String, Lanes> LANES = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(BrowserPool::shutdown, "browser-pool-shutdown"));
+    }
+
+    private BrowserPool() {
+    }
+
+    public static void useLanes(int limit) {
+        laneLimit = limit;
+    }
+
+    public static boolean isLaneMode() {
+        return laneLimit > 0;
+    }
+
+    //Most lanes of the engine lent out at once so far: tests actually running, not those waiting for a lane
+    public static int getPeakLanesInUse(String engine) {
+        Lanes lanes = LANES.get(engine);
+        return lanes != null ? lanes.peakLent.get() : 0;
+    }
+
+    public static Playwright getPlaywright() {
+        return getPlaywright(Config.getBrowser());
+    }
+
+    public static Browser getBrowser() {
+        return getBrowser(Config.getBrowser());
+    }
+
+    public static Playwright getPlaywright(String engine) {
+        return current(engine).playwright;
+    }
+
+    public static Browser getBrowser(String engine) {
+        return current(engine).browser;
+    }
+
+    //Driver process of this thread's pooled browser, null when there is none or it is unknown
+    static ProcessHandle driver(String engine) {
+        PooledBrowser pooled = THREAD_BROWSERS.get().get(engine);
+        return pooled != null ? pooled.driver : null;
+    }
+
+    //Launches the browser engine ("chromium", "firefox" or "webkit") on the given Playwright instance
+    static Browser launchBrowser(Playwright playwright, String engine) {
+        logger.debug("Initializing {} browser", engine);
+        BrowserType.LaunchOptions launchOptions = new BrowserType.LaunchOptions()
+                .setHeadless(isHeadlessMode());
+
+        return switch (engine.toLowerCase(Locale.ROOT)) {
+            case "firefox" -> {
+                logger.info("Launching Firefox browser");
+                yield playwright.firefox().launch(launchOptions);
+            }
+            case "webkit" -> {
+                logger.info("Launching WebKit browser");
+                yield playwright.webkit().launch(launchOptions);
+            }
+            default -> {
+                logger.info("Launching Chromium browser");
+                yield playwright.chromium().launch(launchOptions);
+            }
+        };
+    }
+
+    private static PooledBrowser current(String engine) {
+        Map<String, PooledBrowser> browsers = THREAD_BROWSERS.get();
+        PooledBrowser pooled = browsers.get(engine);
+        if (pooled != null && pooled.browser.isConnected()) {
+            return pooled;
+        }
+        if (pooled != null) {
+            logger.warn("Pooled browser on thread {} is disconnected, relaunching", Thread.currentThread().getName());
+            discard(engine, pooled, false);
+        }
+
+        pooled = isLaneMode() ? borrowLane(engine) : create(engine, false);
+        browsers.put(engine, pooled);
+        if (pooled.lane) {
+            Lanes lanes = LANES.get(engine);
+            lanes.peakLent.accumulateAndGet(lanes.lent.incrementAndGet(), Math::max);
+        }
+        return pooled;
+    }
+
+    //An idle lane, a new one while there are fewer than the limit, or the next one released
+    private static PooledBrowser borrowLane(String engine) {
+        Lanes lanes = LANES.computeIfAbsent(engine, key -> new Lanes());
+        long start = System.nanoTime();
+        try {
+            while (true) {
+                PooledBrowser lane = lanes.idle.poll();
+                if (lane == null && lanes.open.incrementAndGet() <= laneLimit) {
+                    try {
+                        return create(engine, true);
+                    } catch (RuntimeException e) {
+                        lanes.open.decrementAndGet();
+                        throw e;
+                    }
+                }
+                if (lane == null) {
+                    lanes.open.decrementAndGet();
+                    lane = lanes.idle.poll(LANE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                if (lane != null && lane.browser.isConnected()) {
+                    return lane;
+                }
+                if (lane != null) {
+                    logger.warn("Idle {} lane is disconnected, replacing it", engine);
+                    discard(engine, lane, false);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a free " + engine + " lane", e);
+        } finally {
+            Metrics.record(LANE_WAIT_METRIC, engine, null, System.nanoTime() - start);
+        }
+    }
+
+    private static PooledBrowser create(String engine, boolean lane) {
+        logger.info("Creating pooled Playwright and {} browser for thread {}", engine, Thread.currentThread().getName());
+        PooledBrowser pooled;
+        BrowserSupervisor.Driver driver = BrowserSupervisor.startDriver();
+        Playwright playwright = driver.playwright;
+        try {
+            pooled = new PooledBrowser(engine, playwright, launchBrowser(playwright, engine), driver.process, lane);
+        } catch (RuntimeException e) {
+            playwright.close();
+            throw e;
+        }
+        ALL_BROWSERS.add(pooled);
+        return pooled;
+    }
+
+    //Called by the owning thread after each test; recycles the browser when it is worn out or unhealthy
+    public static void release(String engine, int contextsOpened, boolean closeHung) {
+        PooledBrowser pooled = THREAD_BROWSERS.get().get(engine);
+        if (pooled == null) {
+            return;
+        }
+        pooled.contexts += contextsOpened;
+        String reason = recycleReason(pooled, closeHung);
+        if (reason != null) {
+            logger.info("Recycling {} browser of thread {} after {} context(s): {}",
+                    engine, Thread.currentThread().getName(), pooled.contexts, reason);
+            discard(engine, pooled, closeHung);
+        } else if (pooled.lane) {
+            THREAD_BROWSERS.get().remove(engine);
+            LANES.get(engine).lent.decrementAndGet();
+            LANES.get(engine).idle.offer(pooled);
+        }
+    }
+
+    private static String recycleReason(PooledBrowser pooled, boolean closeHung) {
+        if (closeHung) {
+            return "a close call hung";
+        }
+        if (!pooled.browser.isConnected()) {
+            return "browser disconnected";
+        }
+        if (pooled.contexts >= Config.getRecycleAfterContexts()) {
+            return "context limit " + Config.getRecycleAfterContexts() + " reached";
+        }
+        long rssMb = BrowserSupervisor.rssMb(pooled.driver);
+        logger.debug("{} browser of thread {}: {} context(s), {} MB resident",
+                pooled.engine, Thread.currentThread().getName(), pooled.contexts, rssMb);
+        if (rssMb >= Config.getRecycleAfterMb()) {
+            return rssMb + " MB resident, limit " + Config.getRecycleAfterMb() + " MB";
+        }
+        return null;
+    }
+
+    //A driver killed after a hung close is not called again, only made sure to be gone
+    private static void discard(String engine, PooledBrowser pooled, boolean driverKilled) {
+        //Only a lane held by this thread counts as lent; an idle one found disconnected does not
+        boolean lent = THREAD_BROWSERS.get().remove(engine, pooled);
+        ALL_BROWSERS.remove(pooled);
+        if (driverKilled) {
+            pooled.closing = true;
+            BrowserSupervisor.kill(pooled.driver);
+        } else {
+            pooled.close();
+        }
+        if (pooled.lane) {
+            LANES.get(engine).open.decrementAndGet();
+            if (lent) {
+                LANES.get(engine).lent.decrementAndGet();
+            }
+        }
+    }
+
+    private static void shutdown() {
+        logger.info("Closing {} pooled browser(s)", ALL_BROWSERS.size());
+        for (PooledBrowser pooled : ALL_BROWSERS) {
+            pooled.close();
+        }
+        ALL_BROWSERS.clear();
+    }
+
+    private static final class PooledBrowser {
+        private final String engine;
+        private final Playwright playwright;
+        private final Browser browser;
+        //Playwright driver process, parent of the browser processes; null when it could not be identified
+        private final ProcessHandle driver;
+        //Lent to one thread at a time instead of belonging to one
+        private final boolean lane;
+        private int contexts;
+        private volatile boolean closing;
+
+        private PooledBrowser(String engine, Playwright playwright, Browser browser, ProcessHandle driver, boolean lane) {
+            this.engine = engine;
+            this.lane = lane;
+            this.playwright = playwright;
+            this.browser = browser;
+            this.driver = driver;
+            browser.onDisconnected(disconnected -> {
+                if (!closing) {
+                    logger.warn("Pooled {} browser disconnected unexpectedly, it will be replaced", engine);
+                }
+            });
+        }
+
+        private void close() {
+            closing = true;
+            if (BrowserSupervisor.close("pooled " + engine + " browser", browser::close, driver)) {
+                BrowserSupervisor.close("pooled Playwright", playwright::close, driver);
+            }
+        }
+    }
+
+    private static final class Lanes {
+        private final BlockingQueue<PooledBrowser> idle = new LinkedBlockingQueue<>();
+        //Lanes created and not discarded, idle or lent
+        private final AtomicInteger open = new AtomicInteger();
+        //Lanes held by a test, from its first Playwright call to its release
+        private final AtomicInteger lent = new AtomicInteger();
+        private final AtomicInteger peakLent = new AtomicInteger();
+    }
+}
@@ -0,0 +1,154 @@
+package configurations;
+
+import com.microsoft.playwright.Playwright;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utilities.Config;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Process-level health checks for pooled browsers: finds the Playwright driver process started
+ * for a Playwright instance, sums the resident memory of the driver and its browser processes (Linux /proc),
+ * and closes Playwright objects with a timeout. Close calls run on the calling thread, which owns the
+ * objects; when one hangs, a watchdog kills the driver process tree instead of touching Playwright,
+ * which ends the hung call. The caller must then make no further calls on that Playwright instance.
+ */
+public final class BrowserSupervisor {
+    private static final Logger logger = LoggerFactory.getLogger(BrowserSupervisor.class);
+    private static final Path PROC = Paths.get("/proc");
+
+    private static final ScheduledExecutorService WATCHDOG = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "browser-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+    //Driver processes already handed to a Playwright instance; a PID leaves the set when its process exits
+    private static final Set<Long> CLAIMED_DRIVERS = ConcurrentHashMap.newKeySet();
+    //Command line argument the Playwright driver is started with (node cli.js run-driver)
+    private static final String DRIVER_ARGUMENT = "run-driver";
+
+    private BrowserSupervisor() {
+    }
+
+    //Playwright.create() with the driver process it started (null when it could not be identified).
+    //Start-ups are not serialised, so when several finish at once each takes one of the new drivers;
+    //two instances started at the same moment may then be paired with each other's driver
+    static Driver startDriver() {
+        Set<Long> before = childPids();
+        Playwright playwright = Playwright.create();
+        return new Driver(playwright, claimNewDriver(before).orElse(null));
+    }
+
+    //Runs the close call on this thread; returns false when it did not finish within CLOSE_TIMEOUT_SECONDS
+    //and the driver was killed, after which the Playwright instance must not be used any more.
+    //Without a known driver process the call is only reported and waited for
+    public static boolean close(String what, Runnable close, ProcessHandle driver) {
+        int timeoutSeconds = Config.getCloseTimeoutSeconds();
+        AtomicBoolean killed = new AtomicBoolean();
+        ScheduledFuture<?> watchdog = WATCHDOG.schedule(() -> {
+            if (driver == null) {
+                logger.warn("{} did not close within {}s and its driver process is unknown, still waiting", what, timeoutSeconds);
+                return;
+            }
+            logger.warn("{} did not close within {}s", what, timeoutSeconds);
+            killed.set(true);
+            kill(driver);
+        }, timeoutSeconds, TimeUnit.SECONDS);
+        try {
+            close.run();
+            logger.debug("{} closed", what);
+        } catch (RuntimeException e) {
+            if (!killed.get()) {
+                logger.warn("Error closing {}", what, e);
+            }
+        } finally {
+            watchdog.cancel(false);
+        }
+        return !killed.get();
+    }
+
+    static Set<Long> childPids() {
+        return ProcessHandle.current().children().map(ProcessHandle::pid).collect(Collectors.toSet());
+    }
+
+    //Claims a driver child process started since the snapshot that no other instance has claimed
+    static Optional<ProcessHandle> claimNewDriver(Set<Long> before) {
+        List<ProcessHandle> started = ProcessHandle.current().children()
+                .filter(child -> !before.contains(child.pid()))
+                .filter(BrowserSupervisor::isDriver)
+                .collect(Collectors.toList());
+        for (ProcessHandle child : started) {
+            if (CLAIMED_DRIVERS.add(child.pid())) {
+                child.onExit().thenRun(() -> CLAIMED_DRIVERS.remove(child.pid()));
+                return Optional.of(child);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static boolean isDriver(ProcessHandle process) {
+        return process.info().arguments()
+                .map(arguments -> Arrays.asList(arguments).contains(DRIVER_ARGUMENT))
+                .orElse(false);
+    }
+
+    //Resident memory of the process and all its descendants, -1 when it cannot be read
+    static long rssMb(ProcessHandle root) {
+        if (root == null || !Files.isDirectory(PROC)) {
+            return -1;
+        }
+        long kilobytes = rssKb(root.pid());
+        for (ProcessHandle descendant : root.descendants().collect(Collectors.toList())) {
+            kilobytes += rssKb(descendant.pid());
+        }
+        return kilobytes / 1024;
+    }
+
+    private static long rssKb(long pid) {
+        try {
+            for (String line : Files.readAllLines(PROC.resolve(String.valueOf(pid)).resolve("status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", ""));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            //Process already gone
+        }
+        return 0;
+    }
+
+    static void kill(ProcessHandle root) {
+        if (root == null || !root.isAlive()) {
+            return;
+        }
+        logger.warn("Killing process tree of pid {}", root.pid());
+        root.descendants().forEach(ProcessHandle::destroyForcibly);
+        root.destroyForcibly();
+    }
+
+    static final class Driver {
+        final Playwright playwright;
+        //Parent of the browser processes; null when it could not be identified
+        final ProcessHandle process;
+
+        private Driver(Playwright playwright, ProcessHandle process) {
+            this.playwright = playwright;
+            this.process = process;
+        }
+    }
+}
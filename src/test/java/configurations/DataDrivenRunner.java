@@ -0,0 +1,354 @@
+package configurations;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.PlaywrightException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import pages.LoginPage;
+import utilities.Config;
+import utilities.DataFiles;
+import utilities.DataRow;
+import utilities.Metrics;
+import utilities.TestLogCaptureAppender;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Runs one check per row of a large CSV or JSONL data file, without JUnit and without a full
+ * BaseTest setup per row. A reader thread streams the file into a bounded queue, so memory stays flat
+ * whatever the file size, and THREADS workers take rows from it. Each worker uses its pooled browser
+ * and gives every row a fresh context, closed right after the row.
+ * Every result is appended as one JSON line to the results file, which is also the checkpoint; it holds
+ * the row number but not the row's values, so passwords in the data never reach it:
+ * with RESUME=true the rows already passed or failed in it are skipped, otherwise it is started over.
+ * The default check logs in with the username and password columns and compares the outcome with
+ * the expected column ("success" or "error") and, when present, the expected_error text.
+ *
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=configurations.DataDrivenRunner
+ *     -Dexec.args="data.csv [results.jsonl]"
+ */
+public final class DataDrivenRunner {
+    private static final Logger logger = LoggerFactory.getLogger(DataDrivenRunner.class);
+    public static final String ROW_METRIC = "data_row";
+
+    public static final String STATUS_PASS = "PASS";
+    public static final String STATUS_FAIL = "FAIL";
+    public static final String STATUS_ERROR = "ERROR";
+
+    private static final String RESULTS_DIR = "target/data-driven";
+    private static final int QUEUE_ROWS_PER_WORKER = 4;
+    //Marks the end of the data for the workers
+    private static final DataRow END = new DataRow(-1, Collections.emptyMap());
+    private static final RouteFilter ROUTE_FILTER = RouteFilter.fromConfig();
+    private static final Gson GSON = new Gson();
+
+    //Checks one row on a fresh page; throws AssertionError when the row's expectation is not met
+    public interface RowCheck {
+        //Returns what was observed, stored as the outcome of the row
+        String run(Page page, DataRow row);
+    }
+
+    public static final RowCheck LOGIN_CHECK = (page, row) -> {
+        LoginPage loginPage = new LoginPage(page);
+        loginPage.navigateTo(Config.getBaseUrl());
+        loginPage.enterUsername(row.get("username"));
+        loginPage.enterPassword(row.get("password"));
+        loginPage.clickLoginButton();
+        String outcome = loginPage.waitForLoginOutcome().getOutcome();
+
+        String expectedError = row.get("expected_error");
+        String expected = row.get("expected").trim().toLowerCase(Locale.ROOT);
+        if (expected.isEmpty()) {
+            expected = expectedError.isEmpty() ? "success" : LoginPage.OUTCOME_ERROR;
+        }
+        if (expected.equals("success")) {
+            if (!LoginPage.OUTCOME_LOGGED_IN.equals(outcome)) {
+                throw new AssertionError("Expected login to succeed, got error: " + loginPage.getErrorMessage());
+            }
+            return outcome;
+        }
+        if (!LoginPage.OUTCOME_ERROR.equals(outcome)) {
+            throw new AssertionError("Expected a login error, but the user was logged in");
+        }
+        String message = loginPage.getErrorMessage();
+        if (!message.contains(expectedError)) {
+            throw new AssertionError("Expected error containing '" + expectedError + "', got '" + message + "'");
+        }
+        return message;
+    };
+
+    private final Path dataFile;
+    private final Path resultsFile;
+    private final RowCheck check;
+    private final String engine;
+    private final int workers;
+    private final boolean resume;
+
+    private final AtomicLong passed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private BufferedWriter results;
+
+    public DataDrivenRunner(Path dataFile, Path resultsFile, RowCheck check) {
+        this.dataFile = dataFile;
+        this.resultsFile = resultsFile;
+        this.check = check;
+        this.engine = Config.getBrowser();
+        this.workers = Config.getThreadCount();
+        this.resume = Config.isResumeEnabled();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length == 0) {
+            System.err.println("Usage: DataDrivenRunner <data.csv|data.jsonl> [results.jsonl]");
+            System.exit(2);
+        }
+        Path dataFile = Paths.get(args[0]);
+        Path resultsFile = args.length > 1 ? Paths.get(args[1]) : defaultResultsFile(dataFile);
+        Summary summary = new DataDrivenRunner(dataFile, resultsFile, LOGIN_CHECK).run();
+        System.exit(summary.failed + summary.errors > 0 ? 1 : 0);
+    }
+
+    public static Path defaultResultsFile(Path dataFile) {
+        String name = dataFile.getFileName().toString().replaceFirst("\\.[^.]+$", "");
+        return Paths.get(RESULTS_DIR, name + "-results.jsonl");
+    }
+
+    public Summary run() throws InterruptedException {
+        BitSet completed = resume ? completedRows(resultsFile) : new BitSet();
+        logger.info("Data-driven run of {} on {} with {} worker(s), {} row(s) already done",
+                dataFile, engine, workers, completed.cardinality());
+        openResults();
+
+        BlockingQueue<DataRow> queue = new ArrayBlockingQueue<>(workers * QUEUE_ROWS_PER_WORKER);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < workers; i++) {
+            Thread thread = new Thread(() -> work(queue), "data-worker-" + i);
+            thread.start();
+            threads.add(thread);
+        }
+
+        long start = System.nanoTime();
+        try (Stream<DataRow> rows = DataFiles.stream(dataFile)) {
+            for (DataRow row : (Iterable<DataRow>) rows::iterator) {
+                if (row.getNumber() <= Integer.MAX_VALUE && completed.get((int) row.getNumber())) {
+                    skipped.incrementAndGet();
+                } else if (row.getError() != null) {
+                    //Nothing to check in a browser; reported like a row that could not be checked
+                    errors.incrementAndGet();
+                    logger.warn("Row {}#{} is invalid: {}", dataFile.getFileName(), row.getNumber(), row.getError());
+                    writeResult(row, STATUS_ERROR, row.getError(), 0);
+                } else {
+                    queue.put(row);
+                }
+            }
+        } finally {
+            for (int i = 0; i < workers; i++) {
+                queue.put(END);
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            closeResults();
+        }
+
+        Summary summary = new Summary(passed.get(), failed.get(), errors.get(), skipped.get(),
+                (System.nanoTime() - start) / 1_000_000);
+        logger.info("Data-driven run finished: {} - results in {}", summary, resultsFile.toAbsolutePath());
+        return summary;
+    }
+
+    //Keeps taking rows until END whatever happens to one, so the reader never blocks on a full queue
+    private void work(BlockingQueue<DataRow> queue) {
+        try {
+            DataRow row;
+            while ((row = queue.take()) != END) {
+                try {
+                    runRow(row);
+                } catch (Throwable e) {
+                    logger.error("Worker failed on row {}", row.getNumber(), e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runRow(DataRow row) {
+        String rowId = dataFile.getFileName() + "#" + row.getNumber();
+        MDC.put(TestLogContextExtension.TEST_ID_KEY, rowId);
+        long start = System.nanoTime();
+        String status;
+        String detail;
+        BrowserContext context = null;
+        boolean closeHung = false;
+        try {
+            Browser browser = BrowserPool.getBrowser(engine);
+            context = browser.newContext(new Browser.NewContextOptions()
+                    .setViewportSize(Config.getViewportWidth(), Config.getViewportHeight())
+                    .setIgnoreHTTPSErrors(true));
+            if (ROUTE_FILTER != null) {
+                ROUTE_FILTER.install(context, new RouteStats());
+            }
+            Page page = context.newPage();
+            page.setDefaultTimeout(Config.getBrowserTimeout());
+            page.setDefaultNavigationTimeout(Config.getBrowserTimeout());
+            detail = check.run(page, row);
+            status = STATUS_PASS;
+            passed.incrementAndGet();
+        } catch (AssertionError e) {
+            status = STATUS_FAIL;
+            detail = e.getMessage();
+            failed.incrementAndGet();
+        } catch (Throwable e) {
+            status = STATUS_ERROR;
+            detail = String.valueOf(e.getMessage());
+            errors.incrementAndGet();
+            logger.warn("Row {} could not be checked", rowId, e);
+        } finally {
+            if (context != null) {
+                BrowserContext closing = context;
+                closeHung = !BrowserSupervisor.close("context of " + rowId, closing::close, BrowserPool.driver(engine));
+            }
+            //Per-row logs are only kept for JUnit tests; the result line carries the failure detail
+            MDC.remove(TestLogContextExtension.TEST_ID_KEY);
+            TestLogCaptureAppender.discard(rowId);
+        }
+        try {
+            BrowserPool.release(engine, context != null ? 1 : 0, closeHung);
+        } catch (PlaywrightException e) {
+            logger.warn("Failed to recycle the {} browser after {}", engine, rowId, e);
+        }
+
+        long nanos = System.nanoTime() - start;
+        Metrics.record(ROW_METRIC, status, dataFile.getFileName().toString(), nanos);
+        logger.info("Row {}: {} ({}ms) {}", rowId, status, nanos / 1_000_000, detail);
+        writeResult(row, status, detail, nanos / 1_000_000);
+    }
+
+    private void openResults() {
+        try {
+            Files.createDirectories(resultsFile.toAbsolutePath().getParent());
+            if (resume) {
+                endWithNewline(resultsFile);
+                results = Files.newBufferedWriter(resultsFile, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } else {
+                results = Files.newBufferedWriter(resultsFile, StandardCharsets.UTF_8);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open results file: " + resultsFile, e);
+        }
+    }
+
+    //Each line is flushed on its own, so an interrupted run loses at most the rows in progress
+    private synchronized void writeResult(DataRow row, String status, String detail, long millis) {
+        JsonObject result = new JsonObject();
+        result.addProperty("row", row.getNumber());
+        result.addProperty("status", status);
+        result.addProperty("detail", detail);
+        result.addProperty("millis", millis);
+        result.addProperty("engine", engine);
+        try {
+            results.write(GSON.toJson(result));
+            results.newLine();
+            results.flush();
+        } catch (IOException e) {
+            logger.error("Failed to write the result of row {}", row.getNumber(), e);
+        }
+    }
+
+    private synchronized void closeResults() {
+        try {
+            results.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close results file: {}", resultsFile, e);
+        }
+    }
+
+    //Rows with a PASS or FAIL result; ERROR rows (browser or network trouble) run again, a partly written line is ignored
+    public static BitSet completedRows(Path resultsFile) {
+        BitSet completed = new BitSet();
+        if (!Files.exists(resultsFile)) {
+            return completed;
+        }
+        try (Stream<String> lines = Files.lines(resultsFile, StandardCharsets.UTF_8)) {
+            lines.forEach(line -> {
+                try {
+                    JsonObject result = JsonParser.parseString(line).getAsJsonObject();
+                    int row = result.get("row").getAsInt();
+                    if (STATUS_ERROR.equals(result.get("status").getAsString())) {
+                        completed.clear(row);
+                    } else {
+                        completed.set(row);
+                    }
+                } catch (RuntimeException e) {
+                    logger.debug("Ignoring unreadable checkpoint line: {}", line);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read checkpoint: " + resultsFile, e);
+        }
+        return completed;
+    }
+
+    private static void endWithNewline(Path file) throws IOException {
+        if (!Files.exists(file) || Files.size(file) == 0) {
+            return;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(raf.length() - 1);
+            if (raf.read() != '\n') {
+                raf.write('\n');
+            }
+        }
+    }
+
+    public static final class Summary {
+        public final long passed;
+        public final long failed;
+        public final long errors;
+        public final long skipped;
+        public final long durationMillis;
+
+        Summary(long passed, long failed, long errors, long skipped, long durationMillis) {
+            this.passed = passed;
+            this.failed = failed;
+            this.errors = errors;
+            this.skipped = skipped;
+            this.durationMillis = durationMillis;
+        }
+
+        @Override
+        public String toString() {
+            long checked = passed + failed + errors;
+            double perSecond = durationMillis > 0 ? checked * 1000.0 / durationMillis : 0;
+            return String.format(Locale.ROOT, "%d passed, %d failed, %d errors, %d skipped (resumed) in %dms, %.1f rows/s",
+                    passed, failed, errors, skipped, durationMillis, perSecond);
+        }
+    }
+}
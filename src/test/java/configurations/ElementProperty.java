@@ -0,0 +1,9 @@
+package configurations;
+
+//Element properties that can be read in one batched query, see BasePage.queryElements()
+public enum ElementProperty {
+    VISIBLE,
+    ENABLED,
+    TEXT,
+    VALUE
+}
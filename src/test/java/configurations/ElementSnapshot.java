@@ -0,0 +1,60 @@
+package configurations;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * State of several elements read in a single round-trip to the browser.
+ * Properties that were not requested, or elements that were not found, read as false/empty.
+ */
+public class ElementSnapshot {
+    private final Map<String, Map<String, Object>> states;
+
+    ElementSnapshot(Map<String, Map<String, Object>> states) {
+        this.states = Collections.unmodifiableMap(states);
+    }
+
+    public boolean isFound(String selector) {
+        return Boolean.TRUE.equals(state(selector).get("found"));
+    }
+
+    public boolean isVisible(String selector) {
+        return Boolean.TRUE.equals(state(selector).get("visible"));
+    }
+
+    public boolean isEnabled(String selector) {
+        return Boolean.TRUE.equals(state(selector).get("enabled"));
+    }
+
+    public boolean areAllVisible() {
+        for (String selector : states.keySet()) {
+            if (!isVisible(selector)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String getText(String selector) {
+        Object text = state(selector).get("text");
+        return text != null ? text.toString() : "";
+    }
+
+    public String getValue(String selector) {
+        Object value = state(selector).get("value");
+        return value != null ? value.toString() : "";
+    }
+
+    private Map<String, Object> state(String selector) {
+        Map<String, Object> state = states.get(selector);
+        if (state == null) {
+            throw new IllegalArgumentException("Selector was not part of the query: " + selector);
+        }
+        return state;
+    }
+
+    @Override
+    public String toString() {
+        return states.toString();
+    }
+}
@@ -0,0 +1,58 @@
+package configurations;
+
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExecutionCondition;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.TestWatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utilities.Config;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fail-fast for broken deployments: once FAIL_FAST_THRESHOLD fast-lane tests (see
+ * {@link FastLaneOrderer}) have failed, tests outside the fast lane that have not started yet
+ * are skipped. Fast-lane tests still run so the verdict is complete. Failures are counted after retries,
+ * per browser engine, so in a matrix run one engine's failures do not skip the other engines' tests.
+ */
+public class FailFastExtension implements ExecutionCondition, TestWatcher {
+    private static final Logger logger = LoggerFactory.getLogger(FailFastExtension.class);
+
+    //Fast-lane failures by browser engine
+    private static final ConcurrentHashMap<String, AtomicInteger> FAST_LANE_FAILURES = new ConcurrentHashMap<>();
+
+    @Override
+    public ConditionEvaluationResult evaluateExecutionCondition(ExtensionContext context) {
+        int threshold = Config.getFailFastThreshold();
+        if (threshold <= 0 || context.getTestMethod().isEmpty() || FastLaneOrderer.isFastLane(context.getTags())) {
+            return ConditionEvaluationResult.enabled("fail-fast not triggered");
+        }
+        String engine = engine(context);
+        int failures = failures(engine).get();
+        if (failures >= threshold) {
+            return ConditionEvaluationResult.disabled("Fail-fast: " + failures + " fast-lane test(s) failed on " + engine);
+        }
+        return ConditionEvaluationResult.enabled("fail-fast not triggered");
+    }
+
+    @Override
+    public void testFailed(ExtensionContext context, Throwable cause) {
+        if (Config.getFailFastThreshold() > 0 && FastLaneOrderer.isFastLane(context.getTags())) {
+            String engine = engine(context);
+            int failures = failures(engine).incrementAndGet();
+            if (failures == Config.getFailFastThreshold()) {
+                logger.error("FAIL-FAST: {} fast-lane test(s) failed on {}, skipping its remaining slower tests", failures, engine);
+            }
+        }
+    }
+
+    private static AtomicInteger failures(String engine) {
+        return FAST_LANE_FAILURES.computeIfAbsent(engine, key -> new AtomicInteger());
+    }
+
+    private static String engine(ExtensionContext context) {
+        return BrowserEngineExtension.engine(context).orElseGet(Config::getBrowser);
+    }
+}
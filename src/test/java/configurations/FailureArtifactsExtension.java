@@ -0,0 +1,23 @@
+package configurations;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * Captures a screenshot, the DOM and the browser console of a failing {@link BaseTest}. It runs
+ * right after the test method, before tearDown closes the page; the files are written in the
+ * background by {@link utilities.ArtifactWriter}.
+ */
+public class FailureArtifactsExtension implements AfterTestExecutionCallback {
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        if (context.getExecutionException().isEmpty()) {
+            return;
+        }
+        Object instance = context.getRequiredTestInstance();
+        if (instance instanceof BaseTest) {
+            ((BaseTest) instance).captureFailureArtifacts(TestLogContextExtension.testId(context));
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package configurations;
+
+import org.junit.jupiter.api.ClassDescriptor;
+import org.junit.jupiter.api.ClassOrderer;
+import org.junit.jupiter.api.ClassOrdererContext;
+import org.junit.jupiter.api.MethodDescriptor;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.MethodOrdererContext;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.junit.platform.commons.annotation.Testable;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.junit.platform.commons.support.HierarchyTraversalMode;
+import utilities.Config;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * With FAST_LANE=true, starts fast-lane tests (FAST_LANE_TAGS, default smoke and critical) first,
+ * then "quick" tests, then everything else; inside a lane the longest tests by
+ * {@link Config#TIMINGS_FILE} start first. Classes are ordered the same way by their best lane
+ * and total runtime. With FAST_LANE off the default order is kept.
+ * Configured as default method and class orderer in the surefire configuration; it does not change
+ * the execution mode, so the methods of a class still run concurrently.
+ */
+public class FastLaneOrderer implements MethodOrderer, ClassOrderer {
+    public static final String QUICK_TAG = "quick";
+    private static final int FAST_LANE = 0;
+    private static final int QUICK_LANE = 1;
+    private static final int OTHER_LANE = 2;
+
+    private static final boolean ENABLED = Config.isFastLaneEnabled();
+    private static final Set<String> FAST_LANE_TAGS = new HashSet<>(Config.getFastLaneTags());
+
+    @Override
+    public void orderMethods(MethodOrdererContext context) {
+        if (!ENABLED) {
+            return;
+        }
+        Map<String, Long> timings = TestTimings.load(Paths.get(Config.TIMINGS_FILE));
+        context.getMethodDescriptors().sort(
+                Comparator.comparingInt((MethodDescriptor descriptor) -> lane(tags(descriptor.getMethod())))
+                        .thenComparing(descriptor -> -runtime(timings, descriptor.getMethod()))
+                        .thenComparing(descriptor -> descriptor.getMethod().getName()));
+    }
+
+    //The MethodOrderer default is SAME_THREAD, which would run the methods of every class one after another
+    @Override
+    public Optional<ExecutionMode> getDefaultExecutionMode() {
+        return Optional.empty();
+    }
+
+    @Override
+    public void orderClasses(ClassOrdererContext context) {
+        if (!ENABLED) {
+            return;
+        }
+        Map<String, Long> timings = TestTimings.load(Paths.get(Config.TIMINGS_FILE));
+        context.getClassDescriptors().sort(
+                Comparator.comparingInt((ClassDescriptor descriptor) -> classLane(descriptor.getTestClass()))
+                        .thenComparing(descriptor -> -classRuntime(timings, descriptor.getTestClass()))
+                        .thenComparing(descriptor -> descriptor.getTestClass().getName()));
+    }
+
+    public static boolean isFastLane(Set<String> tags) {
+        for (String tag : tags) {
+            if (FAST_LANE_TAGS.contains(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static int lane(Set<String> tags) {
+        if (isFastLane(tags)) {
+            return FAST_LANE;
+        }
+        return tags.contains(QUICK_TAG) ? QUICK_LANE : OTHER_LANE;
+    }
+
+    //Tags of the method and of its class
+    private static Set<String> tags(Method method) {
+        Set<String> tags = new HashSet<>();
+        addTags(tags, method);
+        addTags(tags, method.getDeclaringClass());
+        return tags;
+    }
+
+    private static void addTags(Set<String> tags, AnnotatedElement element) {
+        for (Tag tag : AnnotationSupport.findRepeatableAnnotations(element, Tag.class)) {
+            tags.add(tag.value());
+        }
+    }
+
+    private static long runtime(Map<String, Long> timings, Method method) {
+        return timings.getOrDefault(TestTimings.key(method.getDeclaringClass().getName(), method.getName()), 0L);
+    }
+
+    private static List<Method> testMethods(Class<?> testClass) {
+        return AnnotationSupport.findAnnotatedMethods(testClass, Testable.class, HierarchyTraversalMode.TOP_DOWN);
+    }
+
+    private static int classLane(Class<?> testClass) {
+        int best = OTHER_LANE;
+        for (Method method : testMethods(testClass)) {
+            best = Math.min(best, lane(tags(method)));
+        }
+        return best;
+    }
+
+    private static long classRuntime(Map<String, Long> timings, Class<?> testClass) {
+        long total = 0;
+        for (Method method : testMethods(testClass)) {
+            total += timings.getOrDefault(TestTimings.key(testClass.getName(), method.getName()), 0L);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,146 @@
+package configurations;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utilities.Config;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-test run counts kept across runs in {@link Config#FLAKINESS_HISTORY_FILE}: how many runs
+ * passed only after a retry (flaky), how many failed every attempt, and how many retries were spent.
+ * A test whose flaky runs reach the quarantine threshold is quarantined. When the JVM exits, the counts
+ * of this run are added to the file as it is then, under a file lock, so parallel JVMs do not overwrite each other.
+ */
+public final class FlakinessHistory {
+    private static final Logger logger = LoggerFactory.getLogger(FlakinessHistory.class);
+
+    //Counts loaded at start-up plus this run's; quarantine decisions use these
+    private static final Map<String, Entry> ENTRIES = new TreeMap<>();
+    //Only this run's counts, which are what gets added to the file
+    private static final Map<String, Entry> RUN_ENTRIES = new TreeMap<>();
+
+    static {
+        ENTRIES.putAll(load(Paths.get(Config.FLAKINESS_HISTORY_FILE)));
+        Runtime.getRuntime().addShutdownHook(new Thread(
+                () -> save(Paths.get(Config.FLAKINESS_HISTORY_FILE)), "flakiness-history-save"));
+    }
+
+    private FlakinessHistory() {
+    }
+
+    //Attempts is 1 for a run without retries
+    public static synchronized void record(String testId, int attempts, boolean passed) {
+        ENTRIES.computeIfAbsent(testId, id -> new Entry()).record(attempts, passed);
+        RUN_ENTRIES.computeIfAbsent(testId, id -> new Entry()).record(attempts, passed);
+    }
+
+    //Share of runs (0..100) that passed only after a retry
+    public static synchronized int flakyPercent(String testId) {
+        Entry entry = ENTRIES.get(testId);
+        return entry == null || entry.runs == 0 ? 0 : (int) (entry.flakyRuns * 100 / entry.runs);
+    }
+
+    public static synchronized boolean isQuarantined(String testId) {
+        Entry entry = ENTRIES.get(testId);
+        return entry != null && entry.runs >= Config.getQuarantineMinRuns()
+                && flakyPercent(testId) >= Config.getQuarantineThresholdPercent();
+    }
+
+    //One line per test: testId=runs,flakyRuns,failedRuns,retries
+    private static Map<String, Entry> load(Path file) {
+        Map<String, Entry> entries = new TreeMap<>();
+        if (!Files.exists(file)) {
+            return entries;
+        }
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                int separator = line.lastIndexOf('=');
+                if (line.startsWith("#") || separator < 0) {
+                    continue;
+                }
+                String[] counts = line.substring(separator + 1).split(",");
+                if (counts.length != 4) {
+                    continue;
+                }
+                Entry entry = new Entry();
+                entry.runs = Long.parseLong(counts[0].trim());
+                entry.flakyRuns = Long.parseLong(counts[1].trim());
+                entry.failedRuns = Long.parseLong(counts[2].trim());
+                entry.retries = Long.parseLong(counts[3].trim());
+                entries.put(line.substring(0, separator), entry);
+            }
+            logger.debug("Loaded flakiness history of {} test(s) from {}", entries.size(), file);
+        } catch (IOException | NumberFormatException e) {
+            logger.warn("Ignoring unreadable flakiness history: {}", file, e);
+        }
+        return entries;
+    }
+
+    //Re-reads the file under the lock, so runs that finished since start-up are kept
+    private static synchronized void save(Path file) {
+        if (RUN_ENTRIES.isEmpty()) {
+            return;
+        }
+        Path directory = file.toAbsolutePath().getParent();
+        try {
+            Files.createDirectories(directory);
+            try (FileChannel channel = FileChannel.open(directory.resolve(file.getFileName() + ".lock"),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock lock = channel.lock()) {
+                Map<String, Entry> merged = load(file);
+                for (Map.Entry<String, Entry> entry : RUN_ENTRIES.entrySet()) {
+                    merged.computeIfAbsent(entry.getKey(), id -> new Entry()).add(entry.getValue());
+                }
+                List<String> lines = new ArrayList<>();
+                lines.add("# testId=runs,flakyRuns,failedRuns,retries");
+                for (Map.Entry<String, Entry> entry : merged.entrySet()) {
+                    Entry counts = entry.getValue();
+                    lines.add(entry.getKey() + "=" + counts.runs + "," + counts.flakyRuns + ","
+                            + counts.failedRuns + "," + counts.retries);
+                }
+                Path temp = Files.createTempFile(directory, "flakiness", ".tmp");
+                Files.write(temp, lines, StandardCharsets.UTF_8);
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to save flakiness history: {}", file, e);
+        }
+    }
+
+    private static final class Entry {
+        private long runs;
+        private long flakyRuns;
+        private long failedRuns;
+        private long retries;
+
+        private void record(int attempts, boolean passed) {
+            runs++;
+            retries += attempts - 1;
+            if (!passed) {
+                failedRuns++;
+            } else if (attempts > 1) {
+                flakyRuns++;
+            }
+        }
+
+        private void add(Entry other) {
+            runs += other.runs;
+            flakyRuns += other.flakyRuns;
+            failedRuns += other.failedRuns;
+            retries += other.retries;
+        }
+    }
+}
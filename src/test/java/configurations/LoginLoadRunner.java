@@ -0,0 +1,405 @@
+package configurations;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.PlaywrightException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import pages.LoginPage;
+import utilities.Config;
+import utilities.Histogram;
+import utilities.Metrics;
+import utilities.TestLogCaptureAppender;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Uses LoginPage as a light load generator: LOAD_SESSIONS login sessions, each in its own context,
+ * spread over LOAD_BROWSERS pooled browsers and started evenly over LOAD_RAMP_UP_SECONDS. Sessions
+ * log in again and again for LOAD_DURATION_SECONDS, with the kinds of login (success, locked, invalid)
+ * taken in turn from LOAD_MIX. Playwright objects belong to the thread that created them, so each
+ * browser has one driver thread that steps its sessions in turn: it fills a form through LoginPage,
+ * clicks the button from a page script that returns at once, and moves on while the server answers,
+ * checking every session's page with one quick evaluation per round. Latency is timed inside the page,
+ * from just before the click to the moment the result shows (recorded by an init script in every
+ * document), so the time the driver thread spends on other sessions is not part of it.
+ * Logins per second and the latency of each outcome are logged and written to
+ * target/load/login-load.txt. Runs against BASE_URL, or the local stand-in with LOCAL_SERVER=true.
+ *
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=configurations.LoginLoadRunner
+ */
+public final class LoginLoadRunner {
+    private static final Logger logger = LoggerFactory.getLogger(LoginLoadRunner.class);
+    public static final String LOAD_METRIC = "login_load";
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_LOCKED = "locked";
+    public static final String OUTCOME_INVALID = "invalid";
+    public static final String OUTCOME_TIMEOUT = "timeout";
+    public static final String OUTCOME_ERROR = "error";
+
+    private static final String REPORT_FILE = "target/load/login-load.txt";
+    private static final int POLL_INTERVAL_MILLIS = 10;
+    private static final double[] QUANTILES = {0.5, 0.95, 0.99};
+
+    //Epoch milliseconds in sessionStorage, which outlives the navigation to the inventory page
+    private static final String SUBMITTED_AT = "__loadRunnerSubmittedAt";
+    private static final String RESULT_AT = "__loadRunnerResultAt";
+
+    //What the page shows: "leaving" until a navigation started by NAVIGATE_SCRIPT replaced the document,
+    //with the in-page latency of the last submit once its result was recorded (-1 before)
+    private static final String STATE_SCRIPT = "selectors => {\n"
+            + "  const submitted = Number(sessionStorage.getItem('" + SUBMITTED_AT + "'));\n"
+            + "  const result = Number(sessionStorage.getItem('" + RESULT_AT + "'));\n"
+            + "  const millis = submitted && result ? result - submitted : -1;\n"
+            + "  const state = s => ({state: s, millis: millis});\n"
+            + "  if (window.__loadRunnerLeaving) return state('leaving');\n"
+            + "  if (location.pathname.startsWith(selectors.inventory)) return state('logged-in');\n"
+            + "  const visible = el => el && el.getClientRects().length > 0 && getComputedStyle(el).visibility !== 'hidden';\n"
+            + "  const error = document.querySelector(selectors.error);\n"
+            + "  if (visible(error)) return state('error:' + (error.textContent || '').trim());\n"
+            + "  if (visible(document.querySelector(selectors.button))) return state('form');\n"
+            + "  return state('loading');\n"
+            + "}";
+    //Starts a navigation without waiting for the server
+    private static final String NAVIGATE_SCRIPT = "url => {\n"
+            + "  sessionStorage.removeItem('" + SUBMITTED_AT + "');\n"
+            + "  sessionStorage.removeItem('" + RESULT_AT + "');\n"
+            + "  window.__loadRunnerLeaving = true;\n"
+            + "  location.href = url;\n"
+            + "}";
+    //Clicks without waiting for what the click starts. An error banner left from the last attempt would read as this attempt's result
+    private static final String SUBMIT_SCRIPT = "selectors => {\n"
+            + "  document.querySelector(selectors.error)?.remove();\n"
+            + "  sessionStorage.removeItem('" + RESULT_AT + "');\n"
+            + "  sessionStorage.setItem('" + SUBMITTED_AT + "', String(performance.timeOrigin + performance.now()));\n"
+            + "  document.querySelector(selectors.button).click();\n"
+            + "}";
+    //Runs in every document of a session: records when the result of a submit shows, the inventory page or an error
+    private static final String RESULT_SCRIPT = "(() => {\n"
+            + "  const check = () => {\n"
+            + "    if (!sessionStorage.getItem('" + SUBMITTED_AT + "') || sessionStorage.getItem('" + RESULT_AT + "')) return;\n"
+            + "    const error = document.querySelector(\"" + LoginPage.ERROR_MESSAGE + "\");\n"
+            + "    const loggedIn = location.pathname.startsWith('" + Config.INVENTORY_PAGE_ENDPOINT + "') && document.readyState !== 'loading';\n"
+            + "    if (loggedIn || (error && error.getClientRects().length > 0)) {\n"
+            + "      sessionStorage.setItem('" + RESULT_AT + "', String(performance.timeOrigin + performance.now()));\n"
+            + "    }\n"
+            + "  };\n"
+            + "  new MutationObserver(check).observe(document, {childList: true, subtree: true, attributes: true});\n"
+            + "  document.addEventListener('DOMContentLoaded', check);\n"
+            + "})();";
+    private static final Map<String, String> STATE_SELECTORS = Map.of(
+            "inventory", Config.INVENTORY_PAGE_ENDPOINT,
+            "error", LoginPage.ERROR_MESSAGE,
+            "button", LoginPage.LOGIN_BUTTON);
+
+    private final String baseUrl = Config.getBaseUrl();
+    private final String engine = Config.getBrowser();
+    private final int sessions = Config.getLoadSessions();
+    private final int browsers = Math.min(Config.getLoadBrowsers(), sessions);
+    private final long rampUpNanos = TimeUnit.SECONDS.toNanos(Config.getLoadRampUpSeconds());
+    private final long durationNanos = TimeUnit.SECONDS.toNanos(Config.getLoadDurationSeconds());
+    private final List<String> mix = parseMix(Config.getLoadMix());
+
+    private final AtomicLong attempts = new AtomicLong();
+    private final AtomicLong unexpected = new AtomicLong();
+    private final Map<String, Histogram> latencies = new ConcurrentHashMap<>();
+
+    public static void main(String[] args) throws InterruptedException {
+        LoginLoadRunner runner = new LoginLoadRunner();
+        long logins = runner.run();
+        System.exit(logins == 0 || runner.unexpected.get() > 0 ? 1 : 0);
+    }
+
+    //Returns the number of completed logins
+    public long run() throws InterruptedException {
+        logger.info("Login load: {} session(s) on {} {} browser(s), ramp-up {}s, duration {}s, mix {} against {}",
+                sessions, browsers, engine, TimeUnit.NANOSECONDS.toSeconds(rampUpNanos),
+                TimeUnit.NANOSECONDS.toSeconds(durationNanos), Config.getLoadMix(), baseUrl);
+        long start = System.nanoTime();
+        List<Thread> drivers = new ArrayList<>();
+        for (int i = 0; i < browsers; i++) {
+            int driver = i;
+            Thread thread = new Thread(() -> drive(driver, start), "load-driver-" + i);
+            thread.start();
+            drivers.add(thread);
+        }
+        for (Thread thread : drivers) {
+            thread.join();
+        }
+        writeReport(report((System.nanoTime() - start) / 1_000_000));
+        return latencies.values().stream().mapToLong(Histogram::getCount).sum();
+    }
+
+    //Runs every browser-th session on this thread's pooled browser until they are all done
+    private void drive(int driver, long start) {
+        //Tagged like a test, so the per-action page logs stay in the bounded capture buffer instead of the console
+        String runId = "login-load-" + driver;
+        MDC.put(TestLogContextExtension.TEST_ID_KEY, runId);
+        List<Session> mine = new ArrayList<>();
+        for (int index = driver; index < sessions; index += browsers) {
+            mine.add(new Session(index, start + rampUpNanos * index / sessions));
+        }
+        long end = start + durationNanos;
+        int contextsOpened = 0;
+        boolean closeHung = false;
+        try {
+            Browser browser = BrowserPool.getBrowser(engine);
+            boolean running = true;
+            while (running) {
+                running = false;
+                for (Session session : mine) {
+                    running |= session.advance(browser, end);
+                }
+                if (running) {
+                    Thread.sleep(POLL_INTERVAL_MILLIS);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.error("Load driver {} stopped", driver, e);
+        } finally {
+            for (Session session : mine) {
+                contextsOpened += session.context != null ? 1 : 0;
+                //After a hung close the driver is gone, so the other contexts are not closed one by one
+                closeHung = closeHung || !session.close();
+            }
+            BrowserPool.release(engine, contextsOpened, closeHung);
+            MDC.remove(TestLogContextExtension.TEST_ID_KEY);
+            TestLogCaptureAppender.discard(runId);
+        }
+    }
+
+    private void record(String expected, String outcome, long nanos) {
+        latencies.computeIfAbsent(outcome, key -> new Histogram()).recordNanos(nanos);
+        Metrics.record(LOAD_METRIC, outcome, null, nanos);
+        if (!outcome.equals(expected)) {
+            unexpected.incrementAndGet();
+            logger.warn("Expected a {} login, got {}", expected, outcome);
+        }
+    }
+
+    private String report(long elapsedMillis) {
+        long total = 0;
+        for (Histogram histogram : latencies.values()) {
+            total += histogram.getCount();
+        }
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "%d login(s) in %.1fs = %.1f logins/s, %d unexpected outcome(s)%n",
+                total, elapsedMillis / 1000.0, elapsedMillis > 0 ? total * 1000.0 / elapsedMillis : 0, unexpected.get()));
+        report.append(String.format(Locale.ROOT, "%d session(s) on %d %s browser(s), ramp-up %ds, mix %s, %s%n",
+                sessions, browsers, engine, TimeUnit.NANOSECONDS.toSeconds(rampUpNanos), Config.getLoadMix(), baseUrl));
+        report.append(String.format(Locale.ROOT, "%-8s %8s %10s %10s %10s %10s %10s%n",
+                "outcome", "count", "mean_ms", "p50_ms", "p95_ms", "p99_ms", "max_ms"));
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(latencies).entrySet()) {
+            Histogram histogram = entry.getValue();
+            report.append(String.format(Locale.ROOT, "%-8s %8d %10.1f", entry.getKey(), histogram.getCount(), histogram.getMeanMillis()));
+            for (double quantile : QUANTILES) {
+                report.append(String.format(Locale.ROOT, " %10.1f", histogram.getPercentileMillis(quantile)));
+            }
+            report.append(String.format(Locale.ROOT, " %10.1f%n", histogram.getMaxMillis()));
+        }
+        return report.toString();
+    }
+
+    private static void writeReport(String report) {
+        logger.info("Login load finished:\n{}", report);
+        Path file = Paths.get(REPORT_FILE);
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.write(file, report.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            logger.warn("Failed to write login load report: {}", file, e);
+        }
+    }
+
+    //One entry per unit of weight, so taking them in turn follows the weights
+    static List<String> parseMix(List<String> pairs) {
+        List<String> mix = new ArrayList<>();
+        for (String pair : pairs) {
+            String[] parts = pair.split("=", 2);
+            String kind = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (!kind.equals(OUTCOME_SUCCESS) && !kind.equals(OUTCOME_LOCKED) && !kind.equals(OUTCOME_INVALID)) {
+                logger.warn("Ignoring unknown LOAD_MIX kind: {}", pair);
+                continue;
+            }
+            int weight = 1;
+            try {
+                weight = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring invalid LOAD_MIX weight: {}", pair);
+            }
+            for (int i = 0; i < weight; i++) {
+                mix.add(kind);
+            }
+        }
+        return mix.isEmpty() ? List.of(OUTCOME_SUCCESS) : mix;
+    }
+
+    private static String classify(String state) {
+        if (state.equals(LoginPage.OUTCOME_LOGGED_IN)) {
+            return OUTCOME_SUCCESS;
+        }
+        return state.contains("locked out") ? OUTCOME_LOCKED : OUTCOME_INVALID;
+    }
+
+    private enum State { WAITING, NAVIGATING, SUBMITTED, DONE }
+
+    private static final class PageState {
+        private final String state;
+        private final double millis;
+
+        private PageState(String state, double millis) {
+            this.state = state;
+            this.millis = millis;
+        }
+    }
+
+    private final class Session {
+        private final int index;
+        private final long startAt;
+        private State state = State.WAITING;
+        private long stateSince;
+        private String expected;
+        private BrowserContext context;
+        private Page page;
+        private LoginPage loginPage;
+
+        private Session(int index, long startAt) {
+            this.index = index;
+            this.startAt = startAt;
+        }
+
+        //Takes the next step if the page is ready for it; returns false once the session is done
+        private boolean advance(Browser browser, long end) {
+            long now = System.nanoTime();
+            try {
+                switch (state) {
+                    case WAITING:
+                        if (now >= startAt) {
+                            context = browser.newContext(new Browser.NewContextOptions()
+                                    .setViewportSize(Config.getViewportWidth(), Config.getViewportHeight())
+                                    .setIgnoreHTTPSErrors(true));
+                            context.addInitScript(RESULT_SCRIPT);
+                            page = context.newPage();
+                            page.setDefaultTimeout(Config.getBrowserTimeout());
+                            loginPage = new LoginPage(page);
+                            startLogin(end);
+                        }
+                        break;
+                    case NAVIGATING:
+                        String loaded = pageState().state;
+                        if (loaded.equals("form") || loaded.startsWith("error:")) {
+                            submit();
+                        } else if (timedOut(now)) {
+                            finish(OUTCOME_TIMEOUT, -1, end);
+                        }
+                        break;
+                    case SUBMITTED:
+                        PageState result = pageState();
+                        //Finished once the page recorded when the result showed
+                        boolean shown = result.state.equals(LoginPage.OUTCOME_LOGGED_IN) || result.state.startsWith("error:");
+                        if (shown && result.millis >= 0) {
+                            finish(classify(result.state), result.millis, end);
+                        } else if (timedOut(now)) {
+                            finish(OUTCOME_TIMEOUT, -1, end);
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Load session {} failed: {}", index, e.getMessage());
+                if (state == State.WAITING) {
+                    //No context, nothing to retry with
+                    state = State.DONE;
+                    return false;
+                }
+                try {
+                    finish(OUTCOME_ERROR, -1, end);
+                } catch (RuntimeException again) {
+                    logger.warn("Load session {} stopped: {}", index, again.getMessage());
+                    state = State.DONE;
+                }
+            }
+            return state != State.DONE;
+        }
+
+        //Fresh cookies and a fresh login page for each attempt; nothing new starts after the end of the run
+        private void startLogin(long end) {
+            if (System.nanoTime() >= end) {
+                state = State.DONE;
+                return;
+            }
+            expected = mix.get((int) (attempts.getAndIncrement() % mix.size()));
+            context.clearCookies();
+            page.evaluate(NAVIGATE_SCRIPT, baseUrl);
+            state = State.NAVIGATING;
+            stateSince = System.nanoTime();
+        }
+
+        private void submit() {
+            switch (expected) {
+                case OUTCOME_LOCKED:
+                    loginPage.enterUsername(Config.LOCKED_USERNAME);
+                    loginPage.enterPassword(Config.LOCKED_USER_PASSWORD);
+                    break;
+                case OUTCOME_INVALID:
+                    loginPage.enterUsername(Config.VALID_USERNAME);
+                    loginPage.enterPassword(Config.INVALID_PASSWORD);
+                    break;
+                default:
+                    loginPage.enterUsername(Config.VALID_USERNAME);
+                    loginPage.enterPassword(Config.VALID_PASSWORD);
+            }
+            page.evaluate(SUBMIT_SCRIPT, STATE_SELECTORS);
+            state = State.SUBMITTED;
+            stateSince = System.nanoTime();
+        }
+
+        //In-page latency when the page recorded one, else the time since the driver thread submitted (timeouts, errors)
+        private void finish(String outcome, double pageMillis, long end) {
+            long nanos = pageMillis >= 0 ? (long) (pageMillis * 1_000_000) : System.nanoTime() - stateSince;
+            record(expected, outcome, nanos);
+            startLogin(end);
+        }
+
+        private boolean timedOut(long now) {
+            return now - stateSince > TimeUnit.MILLISECONDS.toNanos(Config.getBrowserTimeout());
+        }
+
+        //A navigation in progress destroys the page's execution context, which counts as still loading
+        private PageState pageState() {
+            try {
+                Map<?, ?> state = (Map<?, ?>) page.evaluate(STATE_SCRIPT, STATE_SELECTORS);
+                return new PageState((String) state.get("state"), ((Number) state.get("millis")).doubleValue());
+            } catch (PlaywrightException e) {
+                return new PageState("loading", -1);
+            }
+        }
+
+        private boolean close() {
+            if (context == null) {
+                return true;
+            }
+            BrowserContext closing = context;
+            context = null;
+            return BrowserSupervisor.close("load session " + index, closing::close, BrowserPool.driver(engine));
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package configurations;
+
+import org.junit.platform.engine.DiscoverySelector;
+import org.junit.platform.engine.FilterResult;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.Launcher;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.PostDiscoveryFilter;
+import org.junit.platform.launcher.core.LauncherConfig;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+import org.junit.platform.launcher.listeners.SummaryGeneratingListener;
+import org.junit.platform.launcher.listeners.TestExecutionSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utilities.Config;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectPackage;
+
+/**
+ * Runs the browser tests against several engines at the same time (MATRIX_BROWSERS, default
+ * chromium, firefox and webkit). Each engine gets its own JUnit launcher execution, its own worker
+ * pool of MATRIX_THREADS threads and therefore its own pooled browsers, so the wall time is close to
+ * the slowest engine. A summary per engine is logged and written to target/matrix/&lt;engine&gt;.txt.
+ * Arguments are test class names; without arguments every BaseTest in test_cases runs.
+ *
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=configurations.MatrixRunner
+ */
+public final class MatrixRunner {
+    private static final Logger logger = LoggerFactory.getLogger(MatrixRunner.class);
+
+    //Configuration parameter read by BrowserEngineExtension
+    public static final String BROWSER_PARAMETER = "swaglabs.browser";
+
+    private static final String REPORT_DIR = "target/matrix";
+
+    private MatrixRunner() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        List<DiscoverySelector> selectors = new ArrayList<>();
+        for (String className : args) {
+            selectors.add(selectClass(className));
+        }
+        if (selectors.isEmpty()) {
+            selectors.add(selectPackage("test_cases"));
+        }
+
+        List<String> engines = Config.getMatrixBrowsers();
+        ExecutorService executor = Executors.newFixedThreadPool(engines.size());
+        Map<String, Future<EngineResult>> futures = new LinkedHashMap<>();
+        long start = System.nanoTime();
+        for (String engine : engines) {
+            futures.put(engine, executor.submit(() -> run(engine, selectors)));
+        }
+
+        boolean failed = false;
+        long slowestMillis = 0;
+        long sumMillis = 0;
+        for (Map.Entry<String, Future<EngineResult>> entry : futures.entrySet()) {
+            try {
+                EngineResult result = entry.getValue().get();
+                TestExecutionSummary summary = result.summary;
+                logger.info("[{}] {} test(s): {} passed, {} failed, {} aborted, {} skipped in {}ms",
+                        entry.getKey(), summary.getTestsFoundCount(), summary.getTestsSucceededCount(),
+                        summary.getTestsFailedCount(), summary.getTestsAbortedCount(),
+                        summary.getTestsSkippedCount(), result.wallMillis);
+                failed |= summary.getTotalFailureCount() > 0;
+                slowestMillis = Math.max(slowestMillis, result.wallMillis);
+                sumMillis += result.wallMillis;
+            } catch (ExecutionException e) {
+                logger.error("[{}] Matrix run failed", entry.getKey(), e.getCause());
+                failed = true;
+            }
+        }
+        executor.shutdown();
+        logger.info("Matrix of {} engine(s) finished in {}ms (slowest engine {}ms, engines one after another {}ms)",
+                engines.size(), (System.nanoTime() - start) / 1_000_000, slowestMillis, sumMillis);
+        System.exit(failed ? 1 : 0);
+    }
+
+    private static EngineResult run(String engine, List<DiscoverySelector> selectors) {
+        int threads = Config.getMatrixThreads(engine);
+        logger.info("[{}] Starting with {} worker thread(s)", engine, threads);
+        LauncherDiscoveryRequest request = LauncherDiscoveryRequestBuilder.request()
+                .selectors(selectors)
+                .filters(browserTestsOnly())
+                //Same as the surefire configuration, plus the engine and its worker count
+                .configurationParameter("junit.jupiter.execution.parallel.enabled", "true")
+                .configurationParameter("junit.jupiter.execution.parallel.mode.default", "concurrent")
+                .configurationParameter("junit.jupiter.execution.parallel.mode.classes.default", "concurrent")
+                .configurationParameter(ParallelExecutionStrategy.CONFIG_PREFIX + "strategy", "custom")
+                .configurationParameter(ParallelExecutionStrategy.CONFIG_PREFIX + "custom.class",
+                        ParallelExecutionStrategy.class.getName())
+                .configurationParameter("junit.jupiter.testmethod.order.default", FastLaneOrderer.class.getName())
+                .configurationParameter("junit.jupiter.testclass.order.default", FastLaneOrderer.class.getName())
+                .configurationParameter(BROWSER_PARAMETER, engine)
+                .configurationParameter(ParallelExecutionStrategy.CONFIG_PREFIX + ParallelExecutionStrategy.THREADS_KEY,
+                        String.valueOf(threads))
+                .build();
+
+        //Shard reports and timings are per test, not per engine, so the auto-registered listeners are left out
+        Launcher launcher = LauncherFactory.create(LauncherConfig.builder()
+                .enableTestExecutionListenerAutoRegistration(false)
+                .build());
+        SummaryGeneratingListener listener = new SummaryGeneratingListener();
+        long start = System.nanoTime();
+        launcher.execute(request, listener);
+        EngineResult result = new EngineResult(listener.getSummary(), (System.nanoTime() - start) / 1_000_000);
+        writeReport(engine, result);
+        return result;
+    }
+
+    //Tests that do not extend BaseTest do not use a browser and would only run once per engine for nothing
+    static PostDiscoveryFilter browserTestsOnly() {
+        return descriptor -> descriptor.getSource()
+                .filter(MethodSource.class::isInstance)
+                .map(source -> BaseTest.class.isAssignableFrom(((MethodSource) source).getJavaClass()))
+                .orElse(true)
+                ? FilterResult.included("browser test")
+                : FilterResult.excluded("does not use a browser");
+    }
+
+    private static void writeReport(String engine, EngineResult result) {
+        StringWriter report = new StringWriter();
+        PrintWriter writer = new PrintWriter(report);
+        writer.println("Engine: " + engine + ", wall time: " + result.wallMillis + "ms");
+        result.summary.printTo(writer);
+        result.summary.printFailuresTo(writer, 20);
+        writer.flush();
+        Path file = Paths.get(REPORT_DIR, engine + ".txt");
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.write(file, report.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            logger.warn("Failed to write matrix report: {}", file, e);
+        }
+    }
+
+    private static final class EngineResult {
+        private final TestExecutionSummary summary;
+        private final long wallMillis;
+
+        private EngineResult(TestExecutionSummary summary, long wallMillis) {
+            this.summary = summary;
+            this.wallMillis = wallMillis;
+        }
+    }
+}
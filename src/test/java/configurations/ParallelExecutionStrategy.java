@@ -0,0 +1,73 @@
+package configurations;
+
+import org.junit.platform.engine.ConfigurationParameters;
+import org.junit.platform.engine.support.hierarchical.ParallelExecutionConfiguration;
+import org.junit.platform.engine.support.hierarchical.ParallelExecutionConfigurationStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utilities.Config;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+
+/**
+ * JUnit parallel strategy that sizes the worker pool from the
+ * junit.jupiter.execution.parallel.config.custom.threads configuration parameter (set per engine
+ * in matrix runs), or {@link Config#getThreadCount()}.
+ * The pool never grows past that size, so the number of pooled Playwright instances
+ * (one per worker thread, see {@link BrowserPool}) stays equal to the worker count.
+ */
+public class ParallelExecutionStrategy implements ParallelExecutionConfigurationStrategy {
+    private static final Logger logger = LoggerFactory.getLogger(ParallelExecutionStrategy.class);
+    private static final int KEEP_ALIVE_SECONDS = 30;
+    //JUnit passes this strategy the parallel config parameters without their common prefix
+    public static final String CONFIG_PREFIX = "junit.jupiter.execution.parallel.config.";
+    public static final String THREADS_KEY = "custom.threads";
+
+    @Override
+    public ParallelExecutionConfiguration createConfiguration(ConfigurationParameters configurationParameters) {
+        int threads = configurationParameters.get(THREADS_KEY, Integer::parseInt)
+                .orElse(Config.getThreadCount());
+        logger.info("Parallel execution with {} worker thread(s)", threads);
+        return new FixedConfiguration(threads);
+    }
+
+    private static final class FixedConfiguration implements ParallelExecutionConfiguration {
+        private final int threads;
+
+        private FixedConfiguration(int threads) {
+            this.threads = threads;
+        }
+
+        @Override
+        public int getParallelism() {
+            return threads;
+        }
+
+        @Override
+        public int getMinimumRunnable() {
+            return threads;
+        }
+
+        @Override
+        public int getMaxPoolSize() {
+            return threads;
+        }
+
+        @Override
+        public int getCorePoolSize() {
+            return threads;
+        }
+
+        @Override
+        public int getKeepAliveSeconds() {
+            return KEEP_ALIVE_SECONDS;
+        }
+
+        //Never add compensation threads: each extra thread would start its own browser
+        @Override
+        public Predicate<? super ForkJoinPool> getSaturatePredicate() {
+            return pool -> true;
+        }
+    }
+}
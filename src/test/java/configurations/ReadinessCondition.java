@@ -0,0 +1,97 @@
+package configurations;
+
+import com.microsoft.playwright.options.LoadState;
+import utilities.Config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A signal that a page (or the outcome of an action) is ready, evaluated by {@link WaitEngine}.
+ * URL, selector and load-state conditions are checked inside the page; network idle is
+ * tracked from the Java side. Selectors must be plain CSS selectors.
+ */
+public final class ReadinessCondition {
+
+    enum Type { URL, SELECTOR, LOAD, DOM_CONTENT_LOADED, NETWORK_IDLE }
+
+    private final Type type;
+    private final String value;
+    private final int quietMillis;
+
+    private ReadinessCondition(Type type, String value, int quietMillis) {
+        this.type = type;
+        this.value = value;
+        this.quietMillis = quietMillis;
+    }
+
+    //Current URL matches the regular expression (evaluated as a JavaScript RegExp)
+    public static ReadinessCondition urlMatches(String regex) {
+        if (regex == null || regex.isEmpty()) {
+            throw new IllegalArgumentException("URL pattern cannot be null or empty");
+        }
+        return new ReadinessCondition(Type.URL, regex, 0);
+    }
+
+    //First element matching the CSS selector is rendered and not hidden
+    public static ReadinessCondition selectorVisible(String selector) {
+        if (selector == null || selector.isEmpty()) {
+            throw new IllegalArgumentException("Selector cannot be null or empty");
+        }
+        return new ReadinessCondition(Type.SELECTOR, selector, 0);
+    }
+
+    public static ReadinessCondition loadState(LoadState state) {
+        switch (state) {
+            case LOAD:
+                return new ReadinessCondition(Type.LOAD, null, 0);
+            case DOMCONTENTLOADED:
+                return new ReadinessCondition(Type.DOM_CONTENT_LOADED, null, 0);
+            default:
+                return networkIdle();
+        }
+    }
+
+    public static ReadinessCondition networkIdle() {
+        return networkIdle(Config.getNetworkIdleQuietMillis());
+    }
+
+    //No request in flight for at least quietMillis
+    public static ReadinessCondition networkIdle(int quietMillis) {
+        if (quietMillis < 0) {
+            throw new IllegalArgumentException("Quiet window cannot be negative");
+        }
+        return new ReadinessCondition(Type.NETWORK_IDLE, null, quietMillis);
+    }
+
+    boolean isNetworkIdle() {
+        return type == Type.NETWORK_IDLE;
+    }
+
+    int getQuietMillis() {
+        return quietMillis;
+    }
+
+    //Argument passed to the in-page check script
+    Map<String, Object> toScriptArgument(String name) {
+        Map<String, Object> argument = new HashMap<>();
+        argument.put("name", name);
+        argument.put("type", type.name());
+        argument.put("value", value);
+        return argument;
+    }
+
+    @Override
+    public String toString() {
+        switch (type) {
+            case URL:
+                return "url~" + value;
+            case SELECTOR:
+                return "visible(" + value + ")";
+            case NETWORK_IDLE:
+                return "networkidle(" + quietMillis + "ms)";
+            default:
+                return type.name().toLowerCase();
+        }
+    }
+}
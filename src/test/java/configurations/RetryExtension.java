@@ -0,0 +1,115 @@
+package configurations;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.InvocationInterceptor;
+import org.junit.jupiter.api.extension.ReflectiveInvocationContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.junit.platform.commons.support.HierarchyTraversalMode;
+import org.junit.platform.commons.support.ReflectionSupport;
+import org.opentest4j.TestAbortedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utilities.Config;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * Re-runs a failed {@link BaseTest} method up to {@link Config#getMaxRetries()} times. A retry keeps
+ * the browser and only replaces the context and page, then repeats the test class's own @BeforeEach
+ * methods before invoking the test again. Every run is recorded in {@link FlakinessHistory}; a
+ * quarantined test that still fails is reported as aborted instead of failed.
+ * <p>
+ * Retries call the test method directly rather than through JUnit, so between attempts no @AfterEach
+ * method or after-test callback runs (failure artifacts are captured once, after the last attempt),
+ * @BeforeEach methods with parameters are skipped, and interceptors of extensions registered after
+ * this one do not wrap the retried invocation. Tests that rely on any of these for per-attempt state
+ * should not be retried.
+ */
+public class RetryExtension implements InvocationInterceptor {
+    private static final Logger logger = LoggerFactory.getLogger(RetryExtension.class);
+
+    @Override
+    public void interceptTestMethod(Invocation<Void> invocation, ReflectiveInvocationContext<Method> invocationContext,
+                                    ExtensionContext extensionContext) throws Throwable {
+        runWithRetries(invocation, invocationContext, extensionContext);
+    }
+
+    @Override
+    public void interceptTestTemplateMethod(Invocation<Void> invocation, ReflectiveInvocationContext<Method> invocationContext,
+                                            ExtensionContext extensionContext) throws Throwable {
+        runWithRetries(invocation, invocationContext, extensionContext);
+    }
+
+    private static void runWithRetries(Invocation<Void> invocation, ReflectiveInvocationContext<Method> invocationContext,
+                                       ExtensionContext extensionContext) throws Throwable {
+        String testId = TestLogContextExtension.testId(extensionContext);
+        Throwable failure;
+        try {
+            invocation.proceed();
+            FlakinessHistory.record(testId, 1, true);
+            return;
+        } catch (TestAbortedException e) {
+            throw e;
+        } catch (Throwable e) {
+            failure = e;
+        }
+
+        Object target = invocationContext.getTarget().orElse(null);
+        int maxRetries = Config.getMaxRetries();
+        if (!(target instanceof BaseTest) || maxRetries <= 0) {
+            FlakinessHistory.record(testId, 1, false);
+            throw quarantined(testId, failure);
+        }
+
+        BaseTest test = (BaseTest) target;
+        for (int retry = 1; retry <= maxRetries; retry++) {
+            logger.warn("Retrying {} ({}/{}) after: {}", testId, retry, maxRetries, failure.toString());
+            try {
+                test.prepareRetry();
+                runBeforeEachMethods(test, extensionContext.getRequiredTestClass());
+                ReflectionSupport.invokeMethod(invocationContext.getExecutable(), test,
+                        invocationContext.getArguments().toArray());
+                FlakinessHistory.record(testId, retry + 1, true);
+                logger.warn("FLAKY {}: passed on retry {} (flaky in {}% of runs)",
+                        testId, retry, FlakinessHistory.flakyPercent(testId));
+                return;
+            } catch (TestAbortedException e) {
+                throw e;
+            } catch (Throwable e) {
+                e.addSuppressed(failure);
+                failure = e;
+            }
+        }
+        FlakinessHistory.record(testId, maxRetries + 1, false);
+        throw quarantined(testId, failure);
+    }
+
+    //@BeforeEach methods of the test class and its parents, except BaseTest's own setUp
+    private static void runBeforeEachMethods(BaseTest test, Class<?> testClass) {
+        List<Method> methods = AnnotationSupport.findAnnotatedMethods(testClass, BeforeEach.class,
+                HierarchyTraversalMode.TOP_DOWN);
+        for (Method method : methods) {
+            if (method.getDeclaringClass() == BaseTest.class) {
+                continue;
+            }
+            if (method.getParameterCount() > 0) {
+                logger.warn("Cannot repeat @BeforeEach {} on retry: parameters are not supported", method.getName());
+                continue;
+            }
+            ReflectionSupport.invokeMethod(method, test);
+        }
+    }
+
+    private static Throwable quarantined(String testId, Throwable failure) {
+        if (!FlakinessHistory.isQuarantined(testId)) {
+            return failure;
+        }
+        logger.warn("QUARANTINED {} failed (flaky in {}% of runs); reported as aborted",
+                testId, FlakinessHistory.flakyPercent(testId));
+        TestAbortedException aborted = new TestAbortedException("Quarantined flaky test failed: " + failure);
+        aborted.addSuppressed(failure);
+        return aborted;
+    }
+}
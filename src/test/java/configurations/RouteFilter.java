@@ -0,0 +1,137 @@
+package configurations;
+
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Request;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utilities.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Request filter installed on a browser context at creation time.
+ * Requests are blocked by resource type (image, font, ...) or by URL pattern (regex);
+ * a URL matching an allow pattern is never blocked. Installing a route disables the
+ * browser HTTP cache, so nothing is installed when the filter is off.
+ */
+public final class RouteFilter {
+    private static final Logger logger = LoggerFactory.getLogger(RouteFilter.class);
+
+    //Resource types and third-party hosts that the login flow does not need
+    private static final List<String> LEAN_RESOURCE_TYPES = Arrays.asList("image", "font", "media");
+    private static final List<String> LEAN_URL_PATTERNS = Arrays.asList(
+            "google-analytics\\.com", "googletagmanager\\.com", "doubleclick\\.net",
+            "backtrace\\.io", "hotjar\\.com", "segment\\.(io|com)", "optimizely\\.com");
+
+    //Response sizes seen in this JVM, used to estimate what blocking a URL saved
+    private static final Map<String, Long> KNOWN_SIZES = new ConcurrentHashMap<>();
+
+    private final Set<String> blockedResourceTypes;
+    private final List<Pattern> blockedUrlPatterns;
+    private final List<Pattern> allowedUrlPatterns;
+
+    public RouteFilter(Collection<String> blockedResourceTypes, List<String> blockedUrlPatterns,
+                       List<String> allowedUrlPatterns) {
+        Set<String> types = new HashSet<>();
+        for (String type : blockedResourceTypes) {
+            types.add(type.toLowerCase(Locale.ROOT));
+        }
+        this.blockedResourceTypes = Collections.unmodifiableSet(types);
+        this.blockedUrlPatterns = compile(blockedUrlPatterns);
+        this.allowedUrlPatterns = compile(allowedUrlPatterns);
+    }
+
+    //Builds the filter selected by Config: "off", "lean" or "custom". A mistyped mode or an invalid
+    //pattern is logged and the filter is turned off, rather than failing the class that holds it
+    public static RouteFilter fromConfig() {
+        String mode = Config.getNetworkFilterMode();
+        try {
+            switch (mode) {
+                case "off":
+                    return null;
+                case "lean":
+                    return new RouteFilter(union(LEAN_RESOURCE_TYPES, Config.getBlockedResourceTypes()),
+                            union(LEAN_URL_PATTERNS, Config.getBlockedUrlPatterns()),
+                            Config.getAllowedUrlPatterns());
+                case "custom":
+                    return new RouteFilter(Config.getBlockedResourceTypes(),
+                            Config.getBlockedUrlPatterns(), Config.getAllowedUrlPatterns());
+                default:
+                    logger.warn("Unknown NETWORK_FILTER mode '{}' (expected off, lean or custom), network filter is off", mode);
+                    return null;
+            }
+        } catch (PatternSyntaxException e) {
+            logger.warn("Invalid URL pattern in the {} network filter, network filter is off: {}", mode, e.getMessage());
+            return null;
+        }
+    }
+
+    public boolean isAllowed(String resourceType, String url) {
+        for (Pattern allowed : allowedUrlPatterns) {
+            if (allowed.matcher(url).find()) {
+                return true;
+            }
+        }
+        if (blockedResourceTypes.contains(resourceType.toLowerCase(Locale.ROOT))) {
+            return false;
+        }
+        for (Pattern blocked : blockedUrlPatterns) {
+            if (blocked.matcher(url).find()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //Routes every request of the context through this filter and counts the outcome into stats
+    public void install(BrowserContext context, RouteStats stats) {
+        context.route("**/*", route -> {
+            Request request = route.request();
+            if (isAllowed(request.resourceType(), request.url())) {
+                stats.recordAllowed();
+                route.fallback();
+            } else {
+                stats.recordBlocked(KNOWN_SIZES.getOrDefault(request.url(), 0L));
+                logger.debug("Blocked {} request: {}", request.resourceType(), request.url());
+                route.abort("blockedbyclient");
+            }
+        });
+        context.onResponse(response -> {
+            String contentLength = response.headers().get("content-length");
+            if (contentLength != null) {
+                try {
+                    long bytes = Long.parseLong(contentLength.trim());
+                    KNOWN_SIZES.put(response.url(), bytes);
+                    stats.recordAllowedBytes(bytes);
+                } catch (NumberFormatException e) {
+                    logger.debug("Ignoring invalid content-length for: {}", response.url());
+                }
+            }
+        });
+    }
+
+    private static List<Pattern> compile(List<String> patterns) {
+        List<Pattern> compiled = new ArrayList<>();
+        for (String pattern : patterns) {
+            compiled.add(Pattern.compile(pattern));
+        }
+        return Collections.unmodifiableList(compiled);
+    }
+
+    private static <T> List<T> union(List<T> first, List<T> second) {
+        List<T> all = new ArrayList<>(first);
+        all.addAll(second);
+        return all;
+    }
+}
@@ -0,0 +1,49 @@
+package configurations;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-test counters of requests let through or blocked by {@link RouteFilter}.
+ * Saved bytes are an estimate: a blocked URL counts only if its size was seen earlier in the run.
+ */
+public class RouteStats {
+    private final AtomicLong allowedRequests = new AtomicLong();
+    private final AtomicLong blockedRequests = new AtomicLong();
+    private final AtomicLong allowedBytes = new AtomicLong();
+    private final AtomicLong savedBytes = new AtomicLong();
+
+    void recordAllowed() {
+        allowedRequests.incrementAndGet();
+    }
+
+    void recordAllowedBytes(long bytes) {
+        allowedBytes.addAndGet(bytes);
+    }
+
+    void recordBlocked(long estimatedBytes) {
+        blockedRequests.incrementAndGet();
+        savedBytes.addAndGet(estimatedBytes);
+    }
+
+    public long getAllowedRequests() {
+        return allowedRequests.get();
+    }
+
+    public long getBlockedRequests() {
+        return blockedRequests.get();
+    }
+
+    public long getAllowedBytes() {
+        return allowedBytes.get();
+    }
+
+    public long getSavedBytes() {
+        return savedBytes.get();
+    }
+
+    @Override
+    public String toString() {
+        return "allowed=" + getAllowedRequests() + " (" + getAllowedBytes() + " bytes), blocked="
+                + getBlockedRequests() + " (~" + getSavedBytes() + " bytes saved)";
+    }
+}
@@ -0,0 +1,272 @@
+package configurations;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utilities.Config;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Append-only store of run durations under {@link Config#RUN_HISTORY_DIR}. Each run is one JSON
+ * line in the current segment file (segment-000001.jsonl, ...; a new one is started after
+ * RUN_HISTORY_SEGMENT_MB), and index.tsv gets one line per run with its git commit, browser,
+ * headless mode and the position of the JSON line, so reports read only the runs they compare.
+ * Appends take a file lock on the index, so shards running on one machine can share the store.
+ * Values are milliseconds, keyed "test:Class.method", "phase:&lt;lifecycle phase&gt;" or "action:&lt;page action&gt;".
+ */
+public final class RunHistory {
+    private static final Logger logger = LoggerFactory.getLogger(RunHistory.class);
+
+    public static final String TEST_PREFIX = "test:";
+    public static final String PHASE_PREFIX = "phase:";
+    public static final String ACTION_PREFIX = "action:";
+
+    private static final String INDEX_FILE = "index.tsv";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".jsonl";
+    private static final DateTimeFormatter RUN_ID_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+    private RunHistory() {
+    }
+
+    //Run of this JVM: current commit, browser and headless mode, and the given values
+    public static Run newRun(Map<String, Double> values) {
+        return newRun(Config.getShardIndex() + "of" + Config.getShardCount(), Config.getBrowser(), Config.isHeadlessMode(), values);
+    }
+
+    //Run recorded by another JVM than the one that ran the tests, e.g. the merge step of a sharded run
+    public static Run newRun(String scope, String browser, boolean headless, Map<String, Double> values) {
+        Instant now = Instant.now();
+        String id = RUN_ID_FORMAT.format(now) + "-" + scope
+                + "-" + String.format("%04x", ThreadLocalRandom.current().nextInt(0x10000));
+        return new Run(id, now.toString(), gitCommit(), browser, headless, values);
+    }
+
+    public static void append(Path directory, Run run) {
+        JsonObject values = new JsonObject();
+        for (Map.Entry<String, Double> entry : new TreeMap<>(run.values).entrySet()) {
+            values.addProperty(entry.getKey(), Math.round(entry.getValue() * 1000) / 1000.0);
+        }
+        JsonObject json = new JsonObject();
+        json.addProperty("id", run.id);
+        json.addProperty("startedAt", run.startedAt);
+        json.addProperty("commit", run.commit);
+        json.addProperty("browser", run.browser);
+        json.addProperty("headless", run.headless);
+        json.add("values", values);
+        byte[] line = (json + "\n").getBytes(StandardCharsets.UTF_8);
+
+        try {
+            Files.createDirectories(directory);
+            try (FileChannel index = FileChannel.open(directory.resolve(INDEX_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                 FileLock lock = index.lock()) {
+                Path segment = currentSegment(directory);
+                long offset = Files.exists(segment) ? Files.size(segment) : 0;
+                Files.write(segment, line, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                IndexEntry entry = new IndexEntry(run.id, run.startedAt, run.commit, run.browser, run.headless,
+                        segment.getFileName().toString(), offset, line.length);
+                index.write(ByteBuffer.wrap((entry.toLine() + "\n").getBytes(StandardCharsets.UTF_8)));
+            }
+            logger.info("Run {} recorded in {} ({} value(s))", run.id, directory, run.values.size());
+        } catch (IOException e) {
+            logger.warn("Failed to record run history in: {}", directory, e);
+        }
+    }
+
+    //Oldest first; unreadable lines are skipped
+    public static List<IndexEntry> index(Path directory) {
+        List<IndexEntry> entries = new ArrayList<>();
+        Path file = directory.resolve(INDEX_FILE);
+        if (!Files.exists(file)) {
+            return entries;
+        }
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                IndexEntry entry = IndexEntry.parse(line);
+                if (entry != null) {
+                    entries.add(entry);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable run history index: {}", file, e);
+        }
+        return entries;
+    }
+
+    public static Run read(Path directory, IndexEntry entry) throws IOException {
+        byte[] bytes = new byte[entry.length];
+        try (RandomAccessFile segment = new RandomAccessFile(directory.resolve(entry.segment).toFile(), "r")) {
+            segment.seek(entry.offset);
+            segment.readFully(bytes);
+        }
+        JsonObject json = JsonParser.parseString(new String(bytes, StandardCharsets.UTF_8)).getAsJsonObject();
+        Map<String, Double> values = new TreeMap<>();
+        for (Map.Entry<String, JsonElement> value : json.getAsJsonObject("values").entrySet()) {
+            values.put(value.getKey(), value.getValue().getAsDouble());
+        }
+        return new Run(entry.id, entry.startedAt, entry.commit, entry.browser, entry.headless, values);
+    }
+
+    //Last segment, or a new one once it reached RUN_HISTORY_SEGMENT_MB
+    private static Path currentSegment(Path directory) throws IOException {
+        int last = 0;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    try {
+                        last = Math.max(last, Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+                    } catch (NumberFormatException e) {
+                        logger.debug("Ignoring unexpected file in run history: {}", name);
+                    }
+                }
+            }
+        }
+        Path segment = directory.resolve(segmentName(Math.max(1, last)));
+        if (Files.exists(segment) && Files.size(segment) >= Config.getRunHistorySegmentMb() * 1024L * 1024L) {
+            segment = directory.resolve(segmentName(last + 1));
+        }
+        return segment;
+    }
+
+    private static String segmentName(int number) {
+        return String.format(Locale.ROOT, "%s%06d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX);
+    }
+
+    //From the CI environment when set, otherwise asked from git; "unknown" outside a repository
+    static String gitCommit() {
+        for (String name : List.of("GIT_COMMIT", "GITHUB_SHA", "CI_COMMIT_SHA")) {
+            String value = System.getenv(name);
+            if (value != null && !value.trim().isEmpty()) {
+                return value.trim().substring(0, Math.min(12, value.trim().length()));
+            }
+        }
+        try {
+            Process git = new ProcessBuilder("git", "rev-parse", "--short=12", "HEAD").redirectErrorStream(true).start();
+            if (git.waitFor(5, TimeUnit.SECONDS) && git.exitValue() == 0) {
+                String commit = new String(git.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+                if (!commit.isEmpty()) {
+                    return commit;
+                }
+            }
+            git.destroyForcibly();
+        } catch (IOException e) {
+            logger.debug("git is not available: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "unknown";
+    }
+
+    public static final class Run {
+        private final String id;
+        private final String startedAt;
+        private final String commit;
+        private final String browser;
+        private final boolean headless;
+        private final Map<String, Double> values;
+
+        public Run(String id, String startedAt, String commit, String browser, boolean headless, Map<String, Double> values) {
+            this.id = id;
+            this.startedAt = startedAt;
+            this.commit = commit;
+            this.browser = browser;
+            this.headless = headless;
+            this.values = values;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getCommit() {
+            return commit;
+        }
+
+        public Map<String, Double> getValues() {
+            return values;
+        }
+    }
+
+    //One line of index.tsv: id, startedAt, commit, browser, headless, segment, offset, length
+    public static final class IndexEntry {
+        private final String id;
+        private final String startedAt;
+        private final String commit;
+        private final String browser;
+        private final boolean headless;
+        private final String segment;
+        private final long offset;
+        private final int length;
+
+        IndexEntry(String id, String startedAt, String commit, String browser, boolean headless,
+                   String segment, long offset, int length) {
+            this.id = id;
+            this.startedAt = startedAt;
+            this.commit = commit;
+            this.browser = browser;
+            this.headless = headless;
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        private String toLine() {
+            return String.join("\t", id, startedAt, commit, browser, String.valueOf(headless),
+                    segment, String.valueOf(offset), String.valueOf(length));
+        }
+
+        private static IndexEntry parse(String line) {
+            String[] fields = line.split("\t");
+            if (fields.length != 8) {
+                return null;
+            }
+            try {
+                return new IndexEntry(fields[0], fields[1], fields[2], fields[3], Boolean.parseBoolean(fields[4]),
+                        fields[5], Long.parseLong(fields[6]), Integer.parseInt(fields[7]));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getCommit() {
+            return commit;
+        }
+
+        //Runs are only compared with runs of the same browser and headless mode
+        public boolean sameSetup(IndexEntry other) {
+            return browser.equals(other.browser) && headless == other.headless;
+        }
+
+        public String getSetup() {
+            return browser + (headless ? " headless" : " headed");
+        }
+    }
+}
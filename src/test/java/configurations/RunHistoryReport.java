@@ -0,0 +1,149 @@
+package configurations;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utilities.Config;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compares the newest run in {@link RunHistory} (or the run whose id starts with the argument) with
+ * the REGRESSION_BASELINE_RUNS runs before it that used the same browser and headless mode.
+ * For every test, lifecycle phase and page action of the run, the baseline gives a median and a
+ * spread (median absolute deviation); a value is a regression when it is at least REGRESSION_Z
+ * spreads and REGRESSION_MIN_PERCENT above the median. Values with fewer than
+ * REGRESSION_MIN_BASELINE_RUNS baseline runs are not judged. The report is logged and written to
+ * target/run-history/regressions.txt; the exit code is 1 when something regressed.
+ *
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=configurations.RunHistoryReport
+ */
+public final class RunHistoryReport {
+    private static final Logger logger = LoggerFactory.getLogger(RunHistoryReport.class);
+
+    private static final String REPORT_FILE = "target/run-history/regressions.txt";
+    //Scales the median absolute deviation to a standard deviation for normally distributed values
+    private static final double MAD_SCALE = 1.4826;
+    //Smallest spread used, so values that never varied are not flagged for a millisecond of noise
+    private static final double MIN_SPREAD_MILLIS = 1.0;
+    private static final double MIN_SPREAD_FRACTION = 0.02;
+
+    private RunHistoryReport() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get(Config.RUN_HISTORY_DIR);
+        List<RunHistory.IndexEntry> index = RunHistory.index(directory);
+        RunHistory.IndexEntry current = null;
+        for (RunHistory.IndexEntry entry : index) {
+            if (args.length == 0 || entry.getId().startsWith(args[0])) {
+                current = entry;
+            }
+        }
+        if (current == null) {
+            logger.error("No run {}in {}", args.length > 0 ? args[0] + " " : "", directory.toAbsolutePath());
+            System.exit(2);
+        }
+
+        //Newest first, so only the baseline window has to be read from the segments
+        List<RunHistory.Run> baseline = new ArrayList<>();
+        for (int i = index.indexOf(current) - 1; i >= 0 && baseline.size() < Config.getRegressionBaselineRuns(); i--) {
+            if (index.get(i).sameSetup(current)) {
+                baseline.add(RunHistory.read(directory, index.get(i)));
+            }
+        }
+        List<Comparison> comparisons = compare(RunHistory.read(directory, current), baseline);
+        String report = report(current, baseline.size(), comparisons);
+        logger.info("Run history report:\n{}", report);
+        Path file = Paths.get(REPORT_FILE);
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Files.write(file, report.getBytes(StandardCharsets.UTF_8));
+        System.exit(comparisons.stream().anyMatch(Comparison::isRegression) ? 1 : 0);
+    }
+
+    //One comparison per value of the run that has enough baseline values, worst first
+    public static List<Comparison> compare(RunHistory.Run run, List<RunHistory.Run> baseline) {
+        List<Comparison> comparisons = new ArrayList<>();
+        for (Map.Entry<String, Double> value : run.getValues().entrySet()) {
+            List<Double> history = new ArrayList<>();
+            for (RunHistory.Run previous : baseline) {
+                Double old = previous.getValues().get(value.getKey());
+                if (old != null) {
+                    history.add(old);
+                }
+            }
+            if (history.size() >= Config.getRegressionMinBaselineRuns()) {
+                comparisons.add(new Comparison(value.getKey(), history, value.getValue()));
+            }
+        }
+        comparisons.sort(Comparator.comparingDouble(Comparison::getScore).reversed());
+        return comparisons;
+    }
+
+    private static String report(RunHistory.IndexEntry current, int baselineRuns, List<Comparison> comparisons) {
+        long regressions = comparisons.stream().filter(Comparison::isRegression).count();
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "Run %s (commit %s, %s) against %d earlier run(s): %d of %d value(s) regressed%n",
+                current.getId(), current.getCommit(), current.getSetup(), baselineRuns, regressions, comparisons.size()));
+        report.append(String.format(Locale.ROOT, "%-60s %12s %12s %9s %7s%n", "value", "median_ms", "now_ms", "change", "score"));
+        for (Comparison comparison : comparisons) {
+            if (comparison.isRegression()) {
+                report.append(String.format(Locale.ROOT, "%-60s %12.1f %12.1f %+8.0f%% %7.1f%n", comparison.key,
+                        comparison.median, comparison.current, comparison.getChangePercent(), comparison.score));
+            }
+        }
+        return report.toString();
+    }
+
+    static double median(List<Double> values) {
+        List<Double> sorted = new ArrayList<>(values);
+        sorted.sort(Double::compare);
+        int middle = sorted.size() / 2;
+        return sorted.size() % 2 == 1 ? sorted.get(middle) : (sorted.get(middle - 1) + sorted.get(middle)) / 2;
+    }
+
+    public static final class Comparison {
+        private final String key;
+        private final double median;
+        private final double current;
+        private final double score;
+
+        public Comparison(String key, List<Double> baseline, double current) {
+            this.key = key;
+            this.median = median(baseline);
+            this.current = current;
+            List<Double> deviations = new ArrayList<>();
+            for (double value : baseline) {
+                deviations.add(Math.abs(value - median));
+            }
+            double spread = Math.max(MAD_SCALE * median(deviations),
+                    Math.max(MIN_SPREAD_MILLIS, MIN_SPREAD_FRACTION * median));
+            this.score = (current - median) / spread;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        //Robust z-score: spreads above the baseline median
+        public double getScore() {
+            return score;
+        }
+
+        public double getChangePercent() {
+            return median > 0 ? (current - median) * 100 / median : 0;
+        }
+
+        public boolean isRegression() {
+            return score >= Config.getRegressionZ() && getChangePercent() >= Config.getRegressionMinPercent();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package configurations;
+
+import org.junit.platform.engine.FilterResult;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.support.descriptor.ClassSource;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.PostDiscoveryFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utilities.Config;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps only the tests of shard SHARD_INDEX (0-based) out of SHARD_COUNT. Every shard computes
+ * the same plan from the discovered test methods and {@link Config#TIMINGS_FILE}: longest tests
+ * first, each to the shard with the least total time so far. Tests without history count as
+ * the average known duration. Registered through META-INF/services; does nothing with one shard.
+ */
+public class ShardFilter implements PostDiscoveryFilter {
+    private static final Logger logger = LoggerFactory.getLogger(ShardFilter.class);
+
+    //Used when no test has a recorded duration yet
+    private static final long DEFAULT_DURATION_MILLIS = 5_000;
+
+    private final int shardIndex = Config.getShardIndex();
+    private final int shardCount = Config.getShardCount();
+    //Plan per engine, test key -> shard
+    private final Map<String, Map<String, Integer>> plans = new HashMap<>();
+
+    public ShardFilter() {
+        if (shardCount > 1 && (shardIndex < 0 || shardIndex >= shardCount)) {
+            throw new IllegalArgumentException("SHARD_INDEX must be in 0.." + (shardCount - 1) + " but was " + shardIndex);
+        }
+    }
+
+    @Override
+    public FilterResult apply(TestDescriptor descriptor) {
+        if (shardCount <= 1 || !isShardUnit(descriptor)) {
+            return FilterResult.included("not sharded");
+        }
+        TestDescriptor root = root(descriptor);
+        Map<String, Integer> plan = plans.computeIfAbsent(root.getUniqueId().toString(), id -> plan(root));
+        String key = TestTimings.key((MethodSource) descriptor.getSource().get());
+        return plan.get(key) == shardIndex
+                ? FilterResult.included("in shard " + shardIndex)
+                : FilterResult.excluded("in shard " + plan.get(key));
+    }
+
+    //A test method, or a parameterized test with all its invocations, directly inside a test class
+    static boolean isShardUnit(TestDescriptor descriptor) {
+        return descriptor.getSource().filter(MethodSource.class::isInstance).isPresent()
+                && descriptor.getParent().flatMap(TestDescriptor::getSource).filter(ClassSource.class::isInstance).isPresent();
+    }
+
+    private static TestDescriptor root(TestDescriptor descriptor) {
+        TestDescriptor root = descriptor;
+        while (root.getParent().isPresent()) {
+            root = root.getParent().get();
+        }
+        return root;
+    }
+
+    private Map<String, Integer> plan(TestDescriptor root) {
+        List<String> keys = new ArrayList<>();
+        root.accept(descriptor -> {
+            if (isShardUnit(descriptor)) {
+                keys.add(TestTimings.key((MethodSource) descriptor.getSource().get()));
+            }
+        });
+        Map<String, Integer> plan = assign(keys, TestTimings.load(Paths.get(Config.TIMINGS_FILE)), shardCount);
+        logger.info("Shard {}/{}: {} of {} test(s)", shardIndex, shardCount,
+                plan.values().stream().filter(shard -> shard == shardIndex).count(), keys.size());
+        return plan;
+    }
+
+    //Longest processing time first: every test goes to the shard with the smallest total so far
+    public static Map<String, Integer> assign(List<String> keys, Map<String, Long> timings, int shardCount) {
+        long known = 0;
+        int knownCount = 0;
+        for (String key : keys) {
+            Long millis = timings.get(key);
+            if (millis != null) {
+                known += millis;
+                knownCount++;
+            }
+        }
+        long fallback = knownCount > 0 ? known / knownCount : DEFAULT_DURATION_MILLIS;
+
+        Map<String, Long> durations = new HashMap<>();
+        for (String key : keys) {
+            durations.put(key, timings.getOrDefault(key, fallback));
+        }
+        List<String> ordered = new ArrayList<>(durations.keySet());
+        ordered.sort(Comparator.comparing((String key) -> durations.get(key)).reversed()
+                .thenComparing(Comparator.naturalOrder()));
+
+        long[] load = new long[shardCount];
+        Map<String, Integer> plan = new HashMap<>();
+        for (String key : ordered) {
+            int lightest = 0;
+            for (int shard = 1; shard < shardCount; shard++) {
+                if (load[shard] < load[lightest]) {
+                    lightest = shard;
+                }
+            }
+            load[lightest] += durations.get(key);
+            plan.put(key, lightest);
+        }
+        return plan;
+    }
+}
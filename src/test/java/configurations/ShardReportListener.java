@@ -0,0 +1,182 @@
+package configurations;
+
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.engine.support.descriptor.ClassSource;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utilities.Config;
+import utilities.Histogram;
+import utilities.Metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times every test method (see {@link ShardFilter}) and, when the run ends, writes the shard's partial report to
+ * {@link Config#SHARD_REPORT_DIR}: one "key, status, millis" line per test, merged later by
+ * {@link ShardReportMerger}. An unsharded run blends its durations into {@link Config#TIMINGS_FILE}
+ * and appends them to {@link RunHistory} itself. In a sharded run only the merger does both, so every
+ * shard plans from the same timings and the history gets one record for the whole run; each shard
+ * leaves the mean times of its lifecycle phases and page actions next to its report for that.
+ * Registered through META-INF/services.
+ */
+public class ShardReportListener implements TestExecutionListener {
+    private static final Logger logger = LoggerFactory.getLogger(ShardReportListener.class);
+
+    //Worst first, so a failed invocation decides the status of its parameterized test
+    static final List<String> STATUS_ORDER = List.of("FAILED", "ABORTED", "SKIPPED", "SUCCESSFUL");
+    //Phase and action means of a shard: "key, mean millis, count" lines next to the shard's report
+    static final String VALUES_SUFFIX = ".values.tsv";
+
+    private volatile TestPlan testPlan;
+    private volatile long runStartNanos;
+    private final Map<String, Long> startNanos = new ConcurrentHashMap<>();
+    private final Map<String, Long> durations = new ConcurrentHashMap<>();
+    private final Map<String, String> statuses = new ConcurrentHashMap<>();
+
+    @Override
+    public void testPlanExecutionStarted(TestPlan testPlan) {
+        this.testPlan = testPlan;
+        this.runStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void executionStarted(TestIdentifier identifier) {
+        if (isShardUnit(identifier)) {
+            startNanos.put(identifier.getUniqueId(), System.nanoTime());
+        }
+    }
+
+    @Override
+    public void executionSkipped(TestIdentifier identifier, String reason) {
+        if (isShardUnit(identifier)) {
+            statuses.merge(key(identifier), "SKIPPED", ShardReportListener::worst);
+        }
+    }
+
+    @Override
+    public void executionFinished(TestIdentifier identifier, TestExecutionResult result) {
+        if (isShardUnit(identifier)) {
+            Long start = startNanos.remove(identifier.getUniqueId());
+            if (start != null) {
+                durations.put(key(identifier), (System.nanoTime() - start) / 1_000_000);
+            }
+        }
+        unitOf(identifier).ifPresent(unit ->
+                statuses.merge(key(unit), result.getStatus().name(), ShardReportListener::worst));
+    }
+
+    @Override
+    public void testPlanExecutionFinished(TestPlan testPlan) {
+        if (durations.isEmpty()) {
+            return;
+        }
+        Path report = writePartialReport((System.nanoTime() - runStartNanos) / 1_000_000);
+        if (Config.getShardCount() == 1) {
+            TestTimings.update(Paths.get(Config.TIMINGS_FILE), durations);
+            RunHistory.append(Paths.get(Config.RUN_HISTORY_DIR), RunHistory.newRun(runValues()));
+        } else {
+            writeValues(valuesFile(report));
+        }
+    }
+
+    //Durations of the tests that passed, and mean times of the lifecycle phases and page actions
+    private Map<String, Double> runValues() {
+        Map<String, Double> values = new TreeMap<>();
+        for (Map.Entry<String, Long> entry : durations.entrySet()) {
+            if ("SUCCESSFUL".equals(statuses.get(entry.getKey()))) {
+                values.put(RunHistory.TEST_PREFIX + entry.getKey(), entry.getValue().doubleValue());
+            }
+        }
+        operationHistograms().forEach((key, histogram) -> values.put(key, histogram.getMeanMillis()));
+        return values;
+    }
+
+    //Lifecycle phases and page actions of this JVM, keyed as in RunHistory
+    private static Map<String, Histogram> operationHistograms() {
+        Map<String, Histogram> histograms = new TreeMap<>();
+        Metrics.byOperation(BaseTest.LIFECYCLE_METRIC).forEach((phase, histogram) ->
+                histograms.put(RunHistory.PHASE_PREFIX + phase, histogram));
+        Metrics.byOperation(BasePage.ACTION_METRIC).forEach((action, histogram) ->
+                histograms.put(RunHistory.ACTION_PREFIX + action, histogram));
+        return histograms;
+    }
+
+    static Path valuesFile(Path report) {
+        String name = report.getFileName().toString();
+        return report.resolveSibling(name.substring(0, name.length() - ".tsv".length()) + VALUES_SUFFIX);
+    }
+
+    //Header with the browser and headless mode, so the merged record is compared with runs of the same setup
+    private static void writeValues(Path file) {
+        List<String> lines = new ArrayList<>();
+        lines.add("# browser=" + Config.getBrowser() + " headless=" + Config.isHeadlessMode());
+        operationHistograms().forEach((key, histogram) ->
+                lines.add(key + "\t" + histogram.getMeanMillis() + "\t" + histogram.getCount()));
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.write(file, lines, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            logger.warn("Failed to write shard values: {}", file, e);
+        }
+    }
+
+    private Path writePartialReport(long wallMillis) {
+        int shardIndex = Config.getShardIndex();
+        int shardCount = Config.getShardCount();
+        Path file = Paths.get(Config.SHARD_REPORT_DIR, "shard-" + shardIndex + "-of-" + shardCount + ".tsv");
+        List<String> lines = new ArrayList<>();
+        lines.add("# shard=" + shardIndex + " count=" + shardCount + " wallMillis=" + wallMillis);
+        for (Map.Entry<String, String> entry : new TreeMap<>(statuses).entrySet()) {
+            lines.add(entry.getKey() + "\t" + entry.getValue() + "\t" + durations.getOrDefault(entry.getKey(), 0L));
+        }
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.write(file, lines, StandardCharsets.UTF_8);
+            logger.info("Shard report written: {} ({} test(s), {}ms)", file, lines.size() - 1, wallMillis);
+        } catch (IOException e) {
+            logger.warn("Failed to write shard report: {}", file, e);
+        }
+        return file;
+    }
+
+    static String worst(String first, String second) {
+        return STATUS_ORDER.indexOf(first) <= STATUS_ORDER.indexOf(second) ? first : second;
+    }
+
+    private boolean isShardUnit(TestIdentifier identifier) {
+        TestPlan plan = testPlan;
+        return plan != null && identifier.getSource().filter(MethodSource.class::isInstance).isPresent()
+                && plan.getParent(identifier).flatMap(TestIdentifier::getSource).filter(ClassSource.class::isInstance).isPresent();
+    }
+
+    //The test method an identifier belongs to: itself, or the parameterized test of an invocation
+    private Optional<TestIdentifier> unitOf(TestIdentifier identifier) {
+        TestPlan plan = testPlan;
+        Optional<TestIdentifier> current = Optional.of(identifier);
+        while (plan != null && current.isPresent()) {
+            if (isShardUnit(current.get())) {
+                return current;
+            }
+            current = plan.getParent(current.get());
+        }
+        return Optional.empty();
+    }
+
+    private static String key(TestIdentifier identifier) {
+        return TestTimings.key((MethodSource) identifier.getSource().get());
+    }
+}
@@ -0,0 +1,157 @@
+package configurations;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utilities.Config;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Merge step of a sharded run: combines the shard-*.tsv partial reports of a directory
+ * (default {@link Config#SHARD_REPORT_DIR}) into merged-report.tsv, logs per-shard totals,
+ * and blends all durations into the timings file so the next run balances on complete history.
+ * When every shard reported, the whole run is appended to {@link RunHistory} as one record: the
+ * durations of the passed tests and the phase and action means of all shards, weighted by count.
+ * Exits with 1 when a test failed or a shard report is missing; aborted tests (quarantined flaky tests,
+ * failed assumptions) and skipped tests do not fail the merge.
+ *
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=configurations.ShardReportMerger -Dexec.args=target/shards
+ */
+public final class ShardReportMerger {
+    private static final Logger logger = LoggerFactory.getLogger(ShardReportMerger.class);
+
+    private ShardReportMerger() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get(args.length > 0 ? args[0] : Config.SHARD_REPORT_DIR);
+        List<Path> reports;
+        try (Stream<Path> files = Files.list(directory)) {
+            reports = files.filter(file -> file.getFileName().toString().matches("shard-\\d+-of-\\d+\\.tsv"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        if (reports.isEmpty()) {
+            logger.error("No shard reports found in {}", directory);
+            System.exit(1);
+        }
+
+        Map<String, String[]> merged = new TreeMap<>();
+        Map<String, double[]> operationTotals = new TreeMap<>();
+        String[] setup = {Config.getBrowser(), String.valueOf(Config.isHeadlessMode())};
+        Map<String, Long> durations = new TreeMap<>();
+        TreeSet<Integer> seenShards = new TreeSet<>();
+        int expectedShards = 0;
+        for (Path report : reports) {
+            String[] shardInfo = report.getFileName().toString().replace(".tsv", "").split("-");
+            int shard = Integer.parseInt(shardInfo[1]);
+            expectedShards = Math.max(expectedShards, Integer.parseInt(shardInfo[3]));
+            seenShards.add(shard);
+
+            long wallMillis = 0;
+            long testMillis = 0;
+            int tests = 0;
+            int notPassed = 0;
+            for (String line : Files.readAllLines(report, StandardCharsets.UTF_8)) {
+                if (line.startsWith("#")) {
+                    int wall = line.indexOf("wallMillis=");
+                    wallMillis = wall >= 0 ? Long.parseLong(line.substring(wall + "wallMillis=".length()).trim()) : 0;
+                    continue;
+                }
+                String[] columns = line.split("\t");
+                if (columns.length != 3) {
+                    continue;
+                }
+                long millis = Long.parseLong(columns[2]);
+                merged.put(columns[0], new String[]{columns[1], columns[2], String.valueOf(shard)});
+                if (millis > 0) {
+                    durations.put(columns[0], millis);
+                }
+                tests++;
+                testMillis += millis;
+                if (!"SUCCESSFUL".equals(columns[1]) && !"SKIPPED".equals(columns[1])) {
+                    notPassed++;
+                }
+            }
+            readValues(ShardReportListener.valuesFile(report), operationTotals, setup);
+            logger.info("Shard {}: {} test(s), {} not passed, {}ms in tests, {}ms wall", shard, tests, notPassed, testMillis, wallMillis);
+        }
+
+        List<String> lines = new ArrayList<>();
+        lines.add("# test\tstatus\tmillis\tshard");
+        Map<String, Integer> statusCounts = new TreeMap<>();
+        for (Map.Entry<String, String[]> entry : merged.entrySet()) {
+            String[] result = entry.getValue();
+            lines.add(entry.getKey() + "\t" + String.join("\t", result));
+            statusCounts.merge(result[0], 1, Integer::sum);
+        }
+        Path mergedFile = directory.resolve("merged-report.tsv");
+        Files.write(mergedFile, lines, StandardCharsets.UTF_8);
+        TestTimings.update(Paths.get(Config.TIMINGS_FILE), durations);
+        logger.info("Merged {} test(s) from {} shard report(s) into {}: {}", merged.size(), reports.size(), mergedFile, statusCounts);
+
+        boolean missing = seenShards.size() < expectedShards;
+        if (missing) {
+            logger.error("Only shards {} of {} reported", seenShards, expectedShards);
+        }
+        if (!missing) {
+            RunHistory.append(Paths.get(Config.RUN_HISTORY_DIR), RunHistory.newRun(expectedShards + "shards",
+                    setup[0], Boolean.parseBoolean(setup[1]), runValues(merged, operationTotals)));
+        }
+        boolean failures = statusCounts.getOrDefault("FAILED", 0) > 0;
+        System.exit(missing || failures ? 1 : 0);
+    }
+
+    //Adds a shard's "key, mean, count" lines to the totals (sum of millis, count); its header gives the setup
+    private static void readValues(Path file, Map<String, double[]> totals, String[] setup) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (line.startsWith("#")) {
+                for (String field : line.substring(1).trim().split(" ")) {
+                    if (field.startsWith("browser=")) {
+                        setup[0] = field.substring("browser=".length());
+                    } else if (field.startsWith("headless=")) {
+                        setup[1] = field.substring("headless=".length());
+                    }
+                }
+                continue;
+            }
+            String[] columns = line.split("\t");
+            if (columns.length == 3) {
+                long count = Long.parseLong(columns[2]);
+                double[] total = totals.computeIfAbsent(columns[0], key -> new double[2]);
+                total[0] += Double.parseDouble(columns[1]) * count;
+                total[1] += count;
+            }
+        }
+    }
+
+    private static Map<String, Double> runValues(Map<String, String[]> merged, Map<String, double[]> operationTotals) {
+        Map<String, Double> values = new TreeMap<>();
+        for (Map.Entry<String, String[]> entry : merged.entrySet()) {
+            long millis = Long.parseLong(entry.getValue()[1]);
+            if ("SUCCESSFUL".equals(entry.getValue()[0]) && millis > 0) {
+                values.put(RunHistory.TEST_PREFIX + entry.getKey(), (double) millis);
+            }
+        }
+        for (Map.Entry<String, double[]> entry : operationTotals.entrySet()) {
+            if (entry.getValue()[1] > 0) {
+                values.put(entry.getKey(), entry.getValue()[0] / entry.getValue()[1]);
+            }
+        }
+        return values;
+    }
+}
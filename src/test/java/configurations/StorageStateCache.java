@@ -0,0 +1,184 @@
+package configurations;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.PlaywrightException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pages.LoginPage;
+import utilities.Config;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Disk cache of logged-in storage states (cookies + localStorage), keyed by username and base URL.
+ * The first request for a user logs in once through {@link LoginPage}; later requests get a
+ * context that starts authenticated. States older than the TTL, or rejected by the server, are rebuilt.
+ * A rejected session is sent back to the login page by a script after the inventory page started
+ * loading, so a session only counts as accepted once the inventory list is shown.
+ */
+public final class StorageStateCache {
+    private static final Logger logger = LoggerFactory.getLogger(StorageStateCache.class);
+
+    //Not monitors, so a virtual thread waiting for a login does not pin its carrier
+    private static final ConcurrentHashMap<String, ReentrantLock> LOCKS = new ConcurrentHashMap<>();
+
+    public static final String INVENTORY_LIST = ".inventory_list";
+    public static final String OUTCOME_INVENTORY = "inventory";
+    public static final String OUTCOME_LOGIN_PAGE = "login-page";
+
+    private StorageStateCache() {
+    }
+
+    //Returns a page, in a new authenticated context, already showing the inventory page.
+    //The options must be a fresh object of the caller's: the storage state path is set on it here.
+    //The per-user lock only covers checking and rebuilding the state file, so tests of one user open pages in parallel
+    public static Page openAuthenticatedPage(Browser browser, Browser.NewContextOptions options,
+                                             Consumer<BrowserContext> contextSetup,
+                                             String username, String password) {
+        String baseUrl = Config.getBaseUrl();
+        Path statePath = statePath(username, baseUrl);
+        ReentrantLock lock = LOCKS.computeIfAbsent(statePath.toString(), key -> new ReentrantLock());
+
+        long stateVersion;
+        lock.lock();
+        try {
+            if (!isFresh(statePath)) {
+                createState(browser, options, contextSetup, username, password, statePath);
+            }
+            stateVersion = lastModified(statePath);
+        } finally {
+            lock.unlock();
+        }
+
+        Page page = openInventory(browser, options, contextSetup, statePath);
+        if (OUTCOME_INVENTORY.equals(sessionOutcome(page))) {
+            logger.info("Reused cached session for user: {}", username);
+            return page;
+        }
+        page.context().close();
+
+        //Server no longer accepts the cached session: rebuild it once, unless another test already did
+        lock.lock();
+        try {
+            if (lastModified(statePath) == stateVersion) {
+                logger.warn("Cached session for user {} is stale, logging in again", username);
+                createState(browser, options, contextSetup, username, password, statePath);
+            }
+        } finally {
+            lock.unlock();
+        }
+        page = openInventory(browser, options, contextSetup, statePath);
+        if (!OUTCOME_INVENTORY.equals(sessionOutcome(page))) {
+            page.context().close();
+            throw new IllegalStateException("Freshly cached session was rejected for user: " + username);
+        }
+        return page;
+    }
+
+    //Waits until the page shows the inventory list or the login page; null when it shows neither in time
+    public static String sessionOutcome(Page page) {
+        Map<String, ReadinessCondition> outcomes = new LinkedHashMap<>();
+        outcomes.put(OUTCOME_INVENTORY, ReadinessCondition.selectorVisible(INVENTORY_LIST));
+        outcomes.put(OUTCOME_LOGIN_PAGE, ReadinessCondition.selectorVisible(LoginPage.LOGIN_BUTTON));
+        try {
+            return WaitEngine.race(page, outcomes, Config.getBrowserTimeout()).getOutcome();
+        } catch (PlaywrightException e) {
+            logger.warn("Page shows neither the inventory nor the login page: {}", page.url());
+            return null;
+        }
+    }
+
+    public static void invalidate(String username) {
+        Path statePath = statePath(username, Config.getBaseUrl());
+        try {
+            Files.deleteIfExists(statePath);
+            logger.info("Invalidated cached session for user: {}", username);
+        } catch (IOException e) {
+            logger.warn("Failed to delete cached session: {}", statePath, e);
+        }
+    }
+
+    private static Page openInventory(Browser browser, Browser.NewContextOptions options,
+                                      Consumer<BrowserContext> contextSetup, Path statePath) {
+        BrowserContext context = browser.newContext(options.setStorageStatePath(statePath));
+        try {
+            contextSetup.accept(context);
+            Page page = context.newPage();
+            page.navigate(Config.getInventoryUrl());
+            return page;
+        } catch (PlaywrightException e) {
+            context.close();
+            throw new RuntimeException("Failed to open cached session from: " + statePath, e);
+        }
+    }
+
+    private static void createState(Browser browser, Browser.NewContextOptions options,
+                                    Consumer<BrowserContext> contextSetup,
+                                    String username, String password, Path statePath) {
+        logger.info("Logging in through the UI to cache session for user: {}", username);
+        BrowserContext context = browser.newContext(options.setStorageStatePath(null));
+        try {
+            contextSetup.accept(context);
+            LoginPage loginPage = new LoginPage(context.newPage());
+            loginPage.navigateTo(Config.getBaseUrl());
+            loginPage.loginWithCredentials(username, password);
+            if (!loginPage.isLoginSuccessful()) {
+                throw new IllegalStateException("Cannot cache session, login failed for user: " + username);
+            }
+
+            //Write next to the target and move, so concurrent JVMs never read a half-written file
+            Files.createDirectories(statePath.getParent());
+            Path tempPath = Files.createTempFile(statePath.getParent(), "state", ".tmp");
+            context.storageState(new BrowserContext.StorageStateOptions().setPath(tempPath));
+            Files.move(tempPath, statePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.debug("Session state saved: {}", statePath);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to save session state: " + statePath, e);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static long lastModified(Path statePath) {
+        try {
+            return Files.getLastModifiedTime(statePath).toMillis();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static boolean isFresh(Path statePath) {
+        try {
+            if (!Files.exists(statePath)) {
+                return false;
+            }
+            Instant modified = Files.getLastModifiedTime(statePath).toInstant();
+            Duration age = Duration.between(modified, Instant.now());
+            boolean fresh = age.compareTo(Duration.ofMinutes(Config.getStorageStateTtlMinutes())) < 0;
+            logger.debug("Cached session {} is {} minute(s) old, fresh: {}", statePath, age.toMinutes(), fresh);
+            return fresh;
+        } catch (IOException e) {
+            logger.warn("Cannot read cached session: {}", statePath, e);
+            return false;
+        }
+    }
+
+    private static Path statePath(String username, String baseUrl) {
+        String safeUser = username.replaceAll("[^A-Za-z0-9_.-]", "_");
+        String urlHash = Integer.toHexString(baseUrl.hashCode());
+        return Paths.get(Config.STORAGE_STATE_DIR, safeUser + "-" + urlHash + ".json");
+    }
+}
@@ -0,0 +1,48 @@
+package configurations;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.TestWatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utilities.ArtifactWriter;
+import utilities.TestLogCaptureAppender;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Decides what happens to the log lines captured for a test once it has finished (after tearDown):
+ * a failing test gets them written to screenshots/&lt;testId&gt;.log, a passing one only a summary line.
+ */
+public class TestLogCaptureExtension implements TestWatcher {
+    private static final Logger logger = LoggerFactory.getLogger(TestLogCaptureExtension.class);
+
+    @Override
+    public void testSuccessful(ExtensionContext context) {
+        String testId = TestLogContextExtension.testId(context);
+        logger.info("PASSED {} ({} captured log line(s) dropped)", testId, TestLogCaptureAppender.discard(testId));
+    }
+
+    @Override
+    public void testAborted(ExtensionContext context, Throwable cause) {
+        String testId = TestLogContextExtension.testId(context);
+        logger.info("ABORTED {} ({} captured log line(s) dropped): {}",
+                testId, TestLogCaptureAppender.discard(testId), cause.getMessage());
+    }
+
+    @Override
+    public void testDisabled(ExtensionContext context, Optional<String> reason) {
+        TestLogCaptureAppender.discard(TestLogContextExtension.testId(context));
+    }
+
+    @Override
+    public void testFailed(ExtensionContext context, Throwable cause) {
+        String testId = TestLogContextExtension.testId(context);
+        List<String> lines = TestLogCaptureAppender.drain(testId);
+        Path file = ArtifactWriter.pathFor(testId, ".log");
+        ArtifactWriter.write(file, String.join("", lines).getBytes(StandardCharsets.UTF_8));
+        logger.error("FAILED {}: {} ({} log line(s) queued to {})", testId, cause.getMessage(), lines.size(), file);
+    }
+}
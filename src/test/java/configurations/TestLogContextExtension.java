@@ -0,0 +1,37 @@
+package configurations;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.slf4j.MDC;
+
+/**
+ * Puts the running test into the logging MDC as "testId", so every log line written by the
+ * test's thread (setUp, page actions, tearDown) carries it, even when workers interleave.
+ */
+public class TestLogContextExtension implements BeforeEachCallback, AfterEachCallback {
+    public static final String TEST_ID_KEY = "testId";
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        MDC.put(TEST_ID_KEY, testId(context));
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        MDC.remove(TEST_ID_KEY);
+    }
+
+    //ClassName.method, plus the invocation number for parameterized tests and the engine in matrix runs,
+    //e.g. LoginPageTestCase.testX#2@firefox
+    public static String testId(ExtensionContext context) {
+        String id = context.getRequiredTestClass().getSimpleName() + "." + context.getRequiredTestMethod().getName();
+        String uniqueId = context.getUniqueId();
+        int invocation = uniqueId.lastIndexOf("-invocation:#");
+        if (invocation >= 0) {
+            id += "#" + uniqueId.substring(invocation + "-invocation:#".length(), uniqueId.length() - 1);
+        }
+        String engine = BrowserEngineExtension.engine(context).orElse(null);
+        return engine != null ? id + "@" + engine : id;
+    }
+}
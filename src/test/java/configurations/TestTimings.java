@@ -0,0 +1,88 @@
+package configurations;
+
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Historical duration of every test method (all invocations of a parameterized test together),
+ * stored as "Class.method=millis". A new measurement is blended into the stored value, so one
+ * slow run does not move a test to another shard on its own.
+ */
+public final class TestTimings {
+    private static final Logger logger = LoggerFactory.getLogger(TestTimings.class);
+
+    //Weight of the newest measurement
+    private static final double NEW_WEIGHT = 0.3;
+
+    private TestTimings() {
+    }
+
+    //Class.method, the unit that is timed and assigned to a shard
+    public static String key(MethodSource source) {
+        return key(source.getClassName(), source.getMethodName());
+    }
+
+    public static String key(String className, String methodName) {
+        String simpleName = className.substring(Math.max(className.lastIndexOf('.'), className.lastIndexOf('$')) + 1);
+        return simpleName + "." + methodName;
+    }
+
+    public static Map<String, Long> load(Path file) {
+        Map<String, Long> timings = new TreeMap<>();
+        if (!Files.exists(file)) {
+            return timings;
+        }
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                int separator = line.lastIndexOf('=');
+                if (line.startsWith("#") || separator < 0) {
+                    continue;
+                }
+                timings.put(line.substring(0, separator), Long.parseLong(line.substring(separator + 1).trim()));
+            }
+        } catch (IOException | NumberFormatException e) {
+            logger.warn("Ignoring unreadable test timings: {}", file, e);
+        }
+        return timings;
+    }
+
+    //Blends the measurements into the file as it is now, so shards on one machine do not drop each other's timings
+    public static synchronized void update(Path file, Map<String, Long> measured) {
+        if (measured.isEmpty()) {
+            return;
+        }
+        Map<String, Long> timings = load(file);
+        for (Map.Entry<String, Long> entry : measured.entrySet()) {
+            Long previous = timings.get(entry.getKey());
+            long millis = previous == null ? entry.getValue()
+                    : Math.round(previous * (1 - NEW_WEIGHT) + entry.getValue() * NEW_WEIGHT);
+            timings.put(entry.getKey(), millis);
+        }
+        List<String> lines = new ArrayList<>();
+        lines.add("# Class.method=millis");
+        for (Map.Entry<String, Long> entry : timings.entrySet()) {
+            lines.add(entry.getKey() + "=" + entry.getValue());
+        }
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, "timings", ".tmp");
+            Files.write(temp, lines, StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.debug("Updated timings of {} test(s) in {}", measured.size(), file);
+        } catch (IOException e) {
+            logger.warn("Failed to save test timings: {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package configurations;
+
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Tracing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utilities.ArtifactWriter;
+import utilities.Config;
+import utilities.Metrics;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides which tests record a Playwright trace and which traces are kept.
+ * "on-failure" traces every test and keeps the trace only when the test failed;
+ * "sample" traces the given percentage of tests and keeps all of their traces.
+ * Playwright saves a kept trace to a temp file; {@link ArtifactWriter} moves it into the artifact
+ * directory, so it counts towards the artifact budget. Traces kept only as samples are dropped when
+ * larger than the cap; traces of failed tests are always kept, so the cap never applies in "on-failure" mode.
+ * Start and stop times are recorded under {@link #TRACE_METRIC}, labelled by mode, so the overhead of each
+ * mode shows up in the metrics export.
+ */
+public final class TracePolicy {
+    private static final Logger logger = LoggerFactory.getLogger(TracePolicy.class);
+    public static final String TRACE_METRIC = "tracing";
+
+    private final String mode;
+    private final int samplePercent;
+    private final long maxBytes;
+
+    public TracePolicy(String mode, int samplePercent, int maxMb) {
+        this.mode = mode;
+        this.samplePercent = samplePercent;
+        this.maxBytes = maxMb * 1024L * 1024L;
+    }
+
+    //Builds the policy selected by Config: "off", "on-failure" or "sample"; a mistyped mode is logged and tracing is off
+    public static TracePolicy fromConfig() {
+        String mode = Config.getTraceMode();
+        switch (mode) {
+            case "off":
+                return null;
+            case "on-failure":
+            case "sample":
+                return new TracePolicy(mode, Config.getTraceSamplePercent(), Config.getTraceMaxMb());
+            default:
+                logger.warn("Unknown TRACE_MODE '{}' (expected off, on-failure or sample), tracing is off", mode);
+                return null;
+        }
+    }
+
+    //Whether the next test records a trace at all
+    public boolean shouldTrace() {
+        return !mode.equals("sample") || ThreadLocalRandom.current().nextInt(100) < samplePercent;
+    }
+
+    public void start(BrowserContext context) {
+        long start = System.nanoTime();
+        context.tracing().start(new Tracing.StartOptions()
+                .setScreenshots(true)
+                .setSnapshots(true)
+                .setSources(false));
+        Metrics.record(TRACE_METRIC, mode + ":start", null, System.nanoTime() - start);
+    }
+
+    //Queues the trace for the artifact directory under the given name, or discards it
+    public void stop(BrowserContext context, String name, boolean failed) {
+        boolean keep = failed || mode.equals("sample");
+        long start = System.nanoTime();
+        if (!keep) {
+            context.tracing().stop();
+            Metrics.record(TRACE_METRIC, mode + ":discard", null, System.nanoTime() - start);
+            return;
+        }
+
+        Path file = ArtifactWriter.pathFor(name, ".trace.zip");
+        Path temp = null;
+        try {
+            temp = Files.createTempFile("trace", ".zip");
+            context.tracing().stop(new Tracing.StopOptions().setPath(temp));
+            long size = Files.size(temp);
+            if (!failed && size > maxBytes) {
+                Files.deleteIfExists(temp);
+                logger.warn("Sampled trace of {} dropped: {} KB is over the {} KB cap", name, size / 1024, maxBytes / 1024);
+            } else {
+                ArtifactWriter.move(temp, file);
+                logger.info("Trace queued: {} ({} KB)", file, size / 1024);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to save trace: {}", file, e);
+            deleteQuietly(temp);
+        } finally {
+            Metrics.record(TRACE_METRIC, mode + ":save", null, System.nanoTime() - start);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.debug("Failed to delete temp trace: {}", file, e);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return mode.equals("sample") ? mode + " " + samplePercent + "%" : mode;
+    }
+}
@@ -0,0 +1,209 @@
+package configurations;
+
+import com.sun.management.OperatingSystemMXBean;
+import org.junit.platform.engine.DiscoverySelector;
+import org.junit.platform.engine.support.descriptor.ClassSource;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.Launcher;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+import org.junit.platform.launcher.core.LauncherConfig;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+import org.junit.platform.launcher.listeners.SummaryGeneratingListener;
+import org.junit.platform.launcher.listeners.TestExecutionSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utilities.Config;
+import utilities.Histogram;
+import utilities.Metrics;
+import utilities.VirtualThreads;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectMethod;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectPackage;
+
+/**
+ * Runs every browser test method at once, each on its own virtual thread (JDK 21+; platform threads
+ * on older JDKs), with its own JUnit launcher execution. The browsers are lanes (see {@link BrowserPool}):
+ * LANES per engine, default one per CPU core, lent to a test from setUp to tearDown, so a test waiting
+ * for a lane costs a parked virtual thread and nothing else. Raising LANES shows how far concurrency
+ * goes before the browsers use up the CPU: the summary gives the wall time, the peak number of tests
+ * holding a lane next to the lane count, the lane wait and the system CPU load. It is logged and written to target/virtual/summary.txt.
+ * Arguments are test class names; without arguments every BaseTest in test_cases runs.
+ *
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=configurations.VirtualThreadRunner
+ */
+public final class VirtualThreadRunner {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadRunner.class);
+
+    private static final String REPORT_FILE = "target/virtual/summary.txt";
+    private static final int CPU_SAMPLE_MILLIS = 500;
+
+    private VirtualThreadRunner() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        List<DiscoverySelector> selectors = new ArrayList<>();
+        for (String className : args) {
+            selectors.add(selectClass(className));
+        }
+        if (selectors.isEmpty()) {
+            selectors.add(selectPackage("test_cases"));
+        }
+        int lanes = Config.getLanes() > 0 ? Config.getLanes() : Runtime.getRuntime().availableProcessors();
+        BrowserPool.useLanes(lanes);
+
+        List<MethodSource> tests = discover(selectors);
+        logger.info("Running {} test(s) on {} threads with {} {} lane(s)", tests.size(),
+                VirtualThreads.isAvailable() ? "virtual" : "platform", lanes, Config.getBrowser());
+
+        CpuSampler cpu = new CpuSampler();
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("test");
+        List<Future<TestExecutionSummary>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (MethodSource test : tests) {
+            futures.add(executor.submit(() -> run(test)));
+        }
+
+        long[] counts = new long[4];
+        StringWriter failures = new StringWriter();
+        PrintWriter failureWriter = new PrintWriter(failures);
+        for (Future<TestExecutionSummary> future : futures) {
+            try {
+                TestExecutionSummary summary = future.get();
+                counts[0] += summary.getTestsSucceededCount();
+                counts[1] += summary.getTestsFailedCount();
+                counts[2] += summary.getTestsAbortedCount();
+                counts[3] += summary.getTestsSkippedCount();
+                summary.printFailuresTo(failureWriter, 20);
+            } catch (ExecutionException e) {
+                logger.error("Test execution failed", e.getCause());
+                counts[1]++;
+            }
+        }
+        long wallMillis = (System.nanoTime() - start) / 1_000_000;
+        executor.shutdown();
+        cpu.stop();
+
+        Histogram laneWait = Metrics.get(BrowserPool.LANE_WAIT_METRIC, Config.getBrowser(), null);
+        failureWriter.flush();
+        String report = String.format(Locale.ROOT,
+                "%d test method(s) on %s threads (JDK %d), %d %s lane(s) (peak %d in use): %d passed, %d failed, %d aborted, %d skipped%n"
+                        + "Wall time %dms, %.1f tests/min%n"
+                        + "Lane wait p50 %.0fms, p95 %.0fms, max %.0fms%n"
+                        + "System CPU mean %.0f%%, peak %.0f%%%n%s",
+                tests.size(), VirtualThreads.isAvailable() ? "virtual" : "platform", Runtime.version().feature(),
+                lanes, Config.getBrowser(), BrowserPool.getPeakLanesInUse(Config.getBrowser()), counts[0], counts[1], counts[2], counts[3],
+                wallMillis, wallMillis > 0 ? tests.size() * 60_000.0 / wallMillis : 0,
+                laneWait != null ? laneWait.getPercentileMillis(0.5) : 0,
+                laneWait != null ? laneWait.getPercentileMillis(0.95) : 0,
+                laneWait != null ? laneWait.getMaxMillis() : 0,
+                cpu.mean() * 100, cpu.peak() * 100, failures);
+        logger.info("Virtual thread run finished:\n{}", report);
+        writeReport(report);
+        System.exit(counts[1] > 0 ? 1 : 0);
+    }
+
+    //Test methods (a parameterized test with all its invocations) of the browser tests
+    private static List<MethodSource> discover(List<DiscoverySelector> selectors) {
+        LauncherDiscoveryRequest request = LauncherDiscoveryRequestBuilder.request()
+                .selectors(selectors)
+                .filters(MatrixRunner.browserTestsOnly())
+                .build();
+        TestPlan plan = LauncherFactory.create().discover(request);
+        List<MethodSource> tests = new ArrayList<>();
+        for (TestIdentifier root : plan.getRoots()) {
+            for (TestIdentifier identifier : plan.getDescendants(root)) {
+                boolean inClass = plan.getParent(identifier).flatMap(TestIdentifier::getSource)
+                        .filter(ClassSource.class::isInstance).isPresent();
+                identifier.getSource().filter(MethodSource.class::isInstance)
+                        .filter(source -> inClass)
+                        .ifPresent(source -> tests.add((MethodSource) source));
+            }
+        }
+        return tests;
+    }
+
+    //Runs on the test's own thread: sequential execution keeps setUp, the test and tearDown on it
+    private static TestExecutionSummary run(MethodSource test) {
+        LauncherDiscoveryRequest request = LauncherDiscoveryRequestBuilder.request()
+                .selectors(selectMethod(test.getClassName(), test.getMethodName(), test.getMethodParameterTypes()))
+                .configurationParameter("junit.jupiter.execution.parallel.enabled", "false")
+                .build();
+        //Shard reports and timings expect one execution per run, so the auto-registered listeners are left out
+        Launcher launcher = LauncherFactory.create(LauncherConfig.builder()
+                .enableTestExecutionListenerAutoRegistration(false)
+                .build());
+        SummaryGeneratingListener listener = new SummaryGeneratingListener();
+        launcher.execute(request, listener);
+        return listener.getSummary();
+    }
+
+    private static void writeReport(String report) {
+        Path file = Paths.get(REPORT_FILE);
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.write(file, report.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            logger.warn("Failed to write virtual thread report: {}", file, e);
+        }
+    }
+
+    //System-wide CPU load (0..1), which includes the browser processes
+    private static final class CpuSampler {
+        private final OperatingSystemMXBean os = (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        private final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "cpu-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        private double sum;
+        private double peak;
+        private int samples;
+
+        private CpuSampler() {
+            sampler.scheduleAtFixedRate(this::sample, 0, CPU_SAMPLE_MILLIS, TimeUnit.MILLISECONDS);
+        }
+
+        private synchronized void sample() {
+            double load = os.getCpuLoad();
+            if (load >= 0) {
+                sum += load;
+                peak = Math.max(peak, load);
+                samples++;
+            }
+        }
+
+        private void stop() {
+            sampler.shutdownNow();
+        }
+
+        private synchronized double mean() {
+            return samples == 0 ? 0 : sum / samples;
+        }
+
+        private synchronized double peak() {
+            return peak;
+        }
+    }
+}
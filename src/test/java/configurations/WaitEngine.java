@@ -0,0 +1,173 @@
+package configurations;
+
+import com.microsoft.playwright.JSHandle;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.PlaywrightException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utilities.Metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Waits for {@link ReadinessCondition}s. Several named outcomes can be raced, e.g. "logged in"
+ * against "error shown", and the first one that holds is returned together with the wait time.
+ * In-page conditions are raced in a single waitForFunction; network idle needs polling.
+ */
+public final class WaitEngine {
+    private static final Logger logger = LoggerFactory.getLogger(WaitEngine.class);
+    private static final int POLL_INTERVAL_MILLIS = 50;
+    public static final String WAIT_METRIC = "wait";
+
+    //Returns the name of the first condition that holds, or null
+    private static final String CHECK_SCRIPT = "conditions => {\n"
+            + "  for (const c of conditions) {\n"
+            + "    if (c.type === 'URL' && new RegExp(c.value).test(location.href)) return c.name;\n"
+            + "    if (c.type === 'LOAD' && document.readyState === 'complete') return c.name;\n"
+            + "    if (c.type === 'DOM_CONTENT_LOADED' && document.readyState !== 'loading') return c.name;\n"
+            + "    if (c.type === 'SELECTOR') {\n"
+            + "      const el = document.querySelector(c.value);\n"
+            + "      if (el && el.getClientRects().length > 0 && getComputedStyle(el).visibility !== 'hidden') return c.name;\n"
+            + "    }\n"
+            + "  }\n"
+            + "  return null;\n"
+            + "}";
+
+    private static final Map<Page, NetworkActivity> ACTIVITY = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private WaitEngine() {
+    }
+
+    //Starts counting in-flight requests of the page, needed by network idle conditions
+    public static void track(Page page) {
+        ACTIVITY.computeIfAbsent(page, NetworkActivity::new);
+    }
+
+    public static WaitResult await(Page page, ReadinessCondition condition, double timeoutMillis) {
+        Map<String, ReadinessCondition> outcomes = new LinkedHashMap<>();
+        outcomes.put(condition.toString(), condition);
+        return race(page, outcomes, timeoutMillis);
+    }
+
+    public static WaitResult race(Page page, Map<String, ReadinessCondition> outcomes, double timeoutMillis) {
+        if (outcomes.isEmpty()) {
+            throw new IllegalArgumentException("At least one outcome is required");
+        }
+        long start = System.nanoTime();
+        List<Map<String, Object>> inPage = new ArrayList<>();
+        Map<String, ReadinessCondition> networkIdle = new LinkedHashMap<>();
+        for (Map.Entry<String, ReadinessCondition> outcome : outcomes.entrySet()) {
+            if (outcome.getValue().isNetworkIdle()) {
+                networkIdle.put(outcome.getKey(), outcome.getValue());
+            } else {
+                inPage.add(outcome.getValue().toScriptArgument(outcome.getKey()));
+            }
+        }
+
+        String settled = networkIdle.isEmpty()
+                ? waitInPage(page, inPage, timeoutMillis)
+                : poll(page, inPage, networkIdle, start, timeoutMillis);
+
+        long elapsed = System.nanoTime() - start;
+        Metrics.record(WAIT_METRIC, settled, String.join("|", outcomes.keySet()), elapsed);
+        WaitResult result = new WaitResult(settled, elapsed / 1_000_000);
+        logger.debug("Wait for {} settled: {}", outcomes.keySet(), result);
+        return result;
+    }
+
+    private static String waitInPage(Page page, List<Map<String, Object>> conditions, double timeoutMillis) {
+        JSHandle handle = page.waitForFunction(CHECK_SCRIPT, conditions,
+                new Page.WaitForFunctionOptions().setTimeout(timeoutMillis));
+        try {
+            return (String) handle.jsonValue();
+        } finally {
+            handle.dispose();
+        }
+    }
+
+    private static String poll(Page page, List<Map<String, Object>> inPage,
+                               Map<String, ReadinessCondition> networkIdle, long start, double timeoutMillis) {
+        NetworkActivity activity = ACTIVITY.computeIfAbsent(page, NetworkActivity::new);
+        while (true) {
+            for (Map.Entry<String, ReadinessCondition> outcome : networkIdle.entrySet()) {
+                if (activity.isIdleFor(outcome.getValue().getQuietMillis())) {
+                    return outcome.getKey();
+                }
+            }
+            if (!inPage.isEmpty()) {
+                try {
+                    Object settled = page.evaluate(CHECK_SCRIPT, inPage);
+                    if (settled != null) {
+                        return (String) settled;
+                    }
+                } catch (PlaywrightException e) {
+                    //Execution context destroyed by a navigation: check again on the next round
+                    logger.debug("Readiness check interrupted: {}", e.getMessage());
+                }
+            }
+            if ((System.nanoTime() - start) / 1_000_000 >= timeoutMillis) {
+                throw new PlaywrightException("Timeout " + (long) timeoutMillis
+                        + "ms exceeded waiting for " + networkIdle.keySet() + " / " + inPage.size() + " page condition(s)");
+            }
+            //Playwright dispatches page events (request/response) while this waits
+            page.waitForTimeout(POLL_INTERVAL_MILLIS);
+        }
+    }
+
+    public static final class WaitResult {
+        private final String outcome;
+        private final long durationMillis;
+
+        WaitResult(String outcome, long durationMillis) {
+            this.outcome = outcome;
+            this.durationMillis = durationMillis;
+        }
+
+        public String getOutcome() {
+            return outcome;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        public boolean is(String outcomeName) {
+            return outcome.equals(outcomeName);
+        }
+
+        @Override
+        public String toString() {
+            return "'" + outcome + "' after " + durationMillis + "ms";
+        }
+    }
+
+    private static final class NetworkActivity {
+        private int inFlight;
+        private long lastActivityNanos = System.nanoTime();
+
+        private NetworkActivity(Page page) {
+            page.onRequest(request -> started());
+            page.onRequestFinished(request -> finished());
+            page.onRequestFailed(request -> finished());
+        }
+
+        private synchronized void started() {
+            inFlight++;
+            lastActivityNanos = System.nanoTime();
+        }
+
+        private synchronized void finished() {
+            inFlight = Math.max(0, inFlight - 1);
+            lastActivityNanos = System.nanoTime();
+        }
+
+        private synchronized boolean isIdleFor(int quietMillis) {
+            return inFlight == 0 && (System.nanoTime() - lastActivityNanos) / 1_000_000 >= quietMillis;
+        }
+    }
+}
@@ -1,10 +1,18 @@
 package pages;
 
 import configurations.BasePage;
+import configurations.ElementProperty;
+import configurations.ElementSnapshot;
+import configurations.ReadinessCondition;
+import configurations.WaitEngine;
 import com.microsoft.playwright.Page;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import static utilities.Config.INVENTORY_PAGE_ENDPOINT;
 
 public class LoginPage extends BasePage {
@@ -16,6 +24,8 @@ public class LoginPage extends BasePage {
     public static final String LOGIN_BUTTON = "input[data-test='login-button']";
     public static final String ERROR_MESSAGE = "[data-test='error']";
     private static final String PAGE_TITLE = "div.login_logo";
+    private static final List<String> LOGIN_FORM_ELEMENTS = List.of(USERNAME_INPUT, PASSWORD_INPUT, LOGIN_BUTTON);
+    private static final List<String> ERROR_ELEMENTS = List.of(ERROR_MESSAGE);
 
     //should recheck
     public static final String LOCKED_USER_ERROR = "Epic sadface: Sorry, this user has been locked out.";
@@ -23,17 +33,35 @@ public class LoginPage extends BasePage {
     private static final String MISSING_USERNAME_ERROR = "Username is required";
     private static final String MISSING_PASSWORD_ERROR = "Password is required";
 
+    //Outcomes of submitting the login form
+    public static final String OUTCOME_LOGGED_IN = "logged-in";
+    public static final String OUTCOME_ERROR = "error";
+
     public LoginPage(Page page) {
         super(page);
+        declareSelectors(USERNAME_INPUT, PASSWORD_INPUT, LOGIN_BUTTON, ERROR_MESSAGE, PAGE_TITLE);
         logger.debug("LoginPage initialized");
     }
 
+    @Override
+    protected ReadinessCondition readinessCondition() {
+        return ReadinessCondition.selectorVisible(LOGIN_BUTTON);
+    }
+
     public void loginWithCredentials(String username, String password) {
         logger.info("Performing login with username: {}", username);
         enterUsername(username);
         enterPassword(password);
         clickLoginButton();
-        waitForPageLoad();
+        waitForLoginOutcome();
+    }
+
+    //Returns as soon as either the inventory page or the error banner shows up
+    public WaitEngine.WaitResult waitForLoginOutcome() {
+        Map<String, ReadinessCondition> outcomes = new LinkedHashMap<>();
+        outcomes.put(OUTCOME_LOGGED_IN, ReadinessCondition.urlMatches(INVENTORY_PAGE_ENDPOINT));
+        outcomes.put(OUTCOME_ERROR, ReadinessCondition.selectorVisible(ERROR_MESSAGE));
+        return waitForOutcome(outcomes);
     }
 
     public boolean isLoginSuccessful() {
@@ -48,8 +76,9 @@ public class LoginPage extends BasePage {
     }
 
     public String getErrorMessage() {
-        if (isLoginErrorDisplayed()) {
-            String errorText = getText(ERROR_MESSAGE);
+        ElementSnapshot snapshot = queryElements(ERROR_ELEMENTS, ElementProperty.VISIBLE, ElementProperty.TEXT);
+        if (snapshot.isVisible(ERROR_MESSAGE)) {
+            String errorText = snapshot.getText(ERROR_MESSAGE);
             logger.info("Error message retrieved: {}", errorText);
             return errorText;
         }
@@ -58,13 +87,12 @@ public class LoginPage extends BasePage {
     }
 
     public boolean areAllLoginElementsVisible() {
-        boolean usernameVisible = isVisible(USERNAME_INPUT);
-        boolean passwordVisible = isVisible(PASSWORD_INPUT);
-        boolean buttonVisible = isVisible(LOGIN_BUTTON);
-        boolean allVisible = usernameVisible && passwordVisible && buttonVisible;
+        ElementSnapshot snapshot = queryElements(LOGIN_FORM_ELEMENTS, ElementProperty.VISIBLE);
+        boolean allVisible = snapshot.areAllVisible();
 
         logger.info("Login elements visibility - Username: {}, Password: {}, Button: {}, All: {}",
-                usernameVisible, passwordVisible, buttonVisible, allVisible);
+                snapshot.isVisible(USERNAME_INPUT), snapshot.isVisible(PASSWORD_INPUT),
+                snapshot.isVisible(LOGIN_BUTTON), allVisible);
 
         return allVisible;
     }
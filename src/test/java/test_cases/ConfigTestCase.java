@@ -0,0 +1,80 @@
+package test_cases;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utilities.Config;
+import utilities.ConfigSnapshot;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Config Test Cases")
+public class ConfigTestCase {
+
+    @Test
+    @Tag("quick")
+    @DisplayName("CF001: Profiles override the config file, the environment and system properties override both")
+    public void testLayerPrecedence(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("team.properties");
+        Files.writeString(file, "BROWSER_TIMEOUT=45000\nEXPLICIT_WAIT=20000\nTHREADS=4\nBROWSER=firefox\n");
+
+        ConfigSnapshot snapshot = ConfigSnapshot.load(
+                Map.of("CONFIG_FILE", file.toString(), "PROFILE", "debug,no-such-profile", "THREADS", "2", "BROWSER", ""),
+                Map.of("EXPLICIT_WAIT", "1234"));
+
+        assertEquals(List.of("debug"), snapshot.getProfiles(), "Unknown profiles should be skipped");
+        assertEquals(120000, snapshot.getInt("BROWSER_TIMEOUT", 0), "The profile should override the config file");
+        assertEquals(2, snapshot.getInt("THREADS", 0), "The environment should override the profile");
+        assertEquals(1234, snapshot.getInt("EXPLICIT_WAIT", 0), "System properties should override everything");
+        assertEquals("firefox", snapshot.getString("BROWSER", "chromium"), "An empty variable should not hide the file's value");
+        assertEquals(800, snapshot.getInt("VIEWPORT_HEIGHT", 800), "Keys no layer sets should use the default");
+        assertEquals("profile debug", snapshot.getSource("BROWSER_TIMEOUT"));
+        assertEquals("environment", snapshot.getFileKeySources().get("THREADS"));
+    }
+
+    @Test
+    @Tag("quick")
+    @DisplayName("CF002: A snapshot is stale once a file it was read from changes")
+    public void testStaleAfterFileChange(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("team.properties");
+        Files.writeString(file, "MAX_RETRIES=1\n");
+        ConfigSnapshot snapshot = ConfigSnapshot.load(Map.of("CONFIG_FILE", file.toString()), Map.of());
+        assertEquals(1, snapshot.getInt("MAX_RETRIES", 3));
+        assertFalse(snapshot.isStale());
+
+        Files.writeString(file, "MAX_RETRIES=2\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 2000));
+        assertTrue(snapshot.isStale(), "An edited file should make the snapshot stale");
+        assertEquals(1, snapshot.getInt("MAX_RETRIES", 3), "A snapshot should not change after it was loaded");
+        assertEquals(2, ConfigSnapshot.load(Map.of("CONFIG_FILE", file.toString()), Map.of()).getInt("MAX_RETRIES", 3));
+    }
+
+    @Test
+    @Tag("quick")
+    @DisplayName("CF003: A reload only takes tuning keys and keeps the settings that identify the run")
+    public void testReloadKeepsRunIdentity(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("team.properties");
+        Files.writeString(file, "BROWSER_TIMEOUT=1000\nBROWSER=firefox\nSHARD_COUNT=2\n");
+        ConfigSnapshot running = ConfigSnapshot.load(Map.of("CONFIG_FILE", file.toString()), Map.of());
+
+        Files.writeString(file, "BROWSER_TIMEOUT=2000\nBROWSER=webkit\nSHARD_COUNT=2\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 2000));
+        ConfigSnapshot reloaded = ConfigSnapshot.load(Map.of("CONFIG_FILE", file.toString()), Map.of());
+        ConfigSnapshot merged = running.withValuesOf(reloaded, Config.RELOADABLE_KEYS);
+
+        assertEquals(Set.of("BROWSER", "BROWSER_TIMEOUT"), running.changedKeys(reloaded));
+        assertEquals(2000, merged.getInt("BROWSER_TIMEOUT", 0), "A timeout should change on reload");
+        assertEquals("firefox", merged.getString("BROWSER", "chromium"), "The browser should not change mid-run");
+        assertEquals(2, merged.getInt("SHARD_COUNT", 1));
+        assertFalse(merged.isStale(), "The merged snapshot should not ask for the same reload again");
+    }
+}
@@ -0,0 +1,80 @@
+package test_cases;
+
+import configurations.DataDrivenRunner;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utilities.DataFiles;
+import utilities.DataRow;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Data Files Test Cases")
+public class DataFilesTestCase {
+
+    @Test
+    @Tag("quick")
+    @DisplayName("DF001: CSV rows keep quoted commas, quotes and spaces")
+    public void testCsvParsing() {
+        List<DataRow> rows;
+        try (Stream<DataRow> stream = DataFiles.stream(Paths.get("src/test/resources/data/login-credentials.csv"))) {
+            rows = stream.collect(Collectors.toList());
+        }
+
+        assertEquals(12, rows.size());
+        assertEquals(1, rows.get(0).getNumber());
+        assertEquals("standard_user", rows.get(0).get("username"));
+        assertEquals("", rows.get(0).get("expected_error"));
+        assertEquals("Sorry, this user has been locked out.", rows.get(3).get("expected_error"));
+        assertEquals("", rows.get(8).get("username"));
+        assertEquals(" standard_user", rows.get(10).get("username"));
+        assertEquals("p\"ss,word", rows.get(11).get("password"));
+    }
+
+    @Test
+    @Tag("quick")
+    @DisplayName("DF002: JSONL rows are read lazily, a malformed line becomes an invalid row and the checkpoint skips errors and a partly written line")
+    public void testJsonlAndCheckpoint(@TempDir Path directory) throws IOException {
+        Path data = directory.resolve("logins.jsonl");
+        Files.write(data, List.of(
+                "{\"username\":\"user1\",\"password\":\"pass1\",\"expected\":\"error\"}",
+                "",
+                "{\"username\":\"standard_user\",\"password\":\"secret_sauce\",\"attempts\":3}",
+                "{\"username\":\"broken",
+                "{\"username\":\"user4\"}"), StandardCharsets.UTF_8);
+
+        try (Stream<DataRow> stream = DataFiles.stream(data)) {
+            DataRow second = stream.skip(1).findFirst().orElseThrow();
+            assertEquals(2, second.getNumber(), "Blank lines should not count as rows");
+            assertEquals("3", second.get("attempts"));
+            assertEquals("", second.get("expected"));
+            assertNull(second.getError());
+        }
+
+        try (Stream<DataRow> stream = DataFiles.stream(data)) {
+            List<DataRow> rows = stream.collect(Collectors.toList());
+            assertEquals(4, rows.size(), "A malformed line should not end the stream");
+            assertNotNull(rows.get(2).getError(), "A malformed line should become an invalid row");
+            assertEquals(3, rows.get(2).getNumber());
+            assertEquals("user4", rows.get(3).get("username"));
+        }
+
+        Path results = directory.resolve("logins-results.jsonl");
+        Files.write(results, ("{\"row\":2,\"status\":\"PASS\"}\n{\"row\":5,\"status\":\"FAIL\"}\n"
+                + "{\"row\":6,\"status\":\"ERROR\"}\n{\"row\":7,\"sta")
+                .getBytes(StandardCharsets.UTF_8));
+        BitSet completed = DataDrivenRunner.completedRows(results);
+        assertEquals("{2, 5}", completed.toString());
+    }
+}
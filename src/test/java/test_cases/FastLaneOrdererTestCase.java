@@ -0,0 +1,71 @@
+package test_cases;
+
+import configurations.FastLaneOrderer;
+import configurations.ParallelExecutionStrategy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.core.LauncherConfig;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+import org.junit.platform.launcher.listeners.SummaryGeneratingListener;
+import org.junit.platform.launcher.listeners.TestExecutionSummary;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+
+@DisplayName("Fast Lane Orderer Test Cases")
+public class FastLaneOrdererTestCase {
+
+    @Test
+    @Tag("quick")
+    @DisplayName("FL001: Methods of a class still run concurrently with the orderer as default")
+    public void testMethodsRunConcurrently() {
+        ConcurrentProbe.THREADS.clear();
+        LauncherDiscoveryRequest request = LauncherDiscoveryRequestBuilder.request()
+                .selectors(selectClass(ConcurrentProbe.class))
+                .configurationParameter("junit.jupiter.execution.parallel.enabled", "true")
+                .configurationParameter("junit.jupiter.execution.parallel.mode.default", "concurrent")
+                .configurationParameter("junit.jupiter.execution.parallel.config.strategy", "custom")
+                .configurationParameter("junit.jupiter.execution.parallel.config.custom.class", ParallelExecutionStrategy.class.getName())
+                .configurationParameter(ParallelExecutionStrategy.CONFIG_PREFIX + ParallelExecutionStrategy.THREADS_KEY, "2")
+                .configurationParameter("junit.jupiter.testmethod.order.default", FastLaneOrderer.class.getName())
+                .build();
+        SummaryGeneratingListener listener = new SummaryGeneratingListener();
+        LauncherFactory.create(LauncherConfig.builder()
+                .enableTestExecutionListenerAutoRegistration(false)
+                .enablePostDiscoveryFilterAutoRegistration(false)
+                .build()).execute(request, listener);
+
+        TestExecutionSummary summary = listener.getSummary();
+        assertEquals(2, summary.getTestsSucceededCount(), "Both probe methods should meet at the barrier");
+        assertEquals(2, ConcurrentProbe.THREADS.size(), "The probe methods should run on different workers");
+    }
+
+    //Each method waits for the other one, so they only pass when they run at the same time; run by FL001 only
+    static class ConcurrentProbe {
+        static final Set<String> THREADS = ConcurrentHashMap.newKeySet();
+        private static final CyclicBarrier BARRIER = new CyclicBarrier(2);
+
+        @Test
+        void first() throws Exception {
+            meet();
+        }
+
+        @Test
+        void second() throws Exception {
+            meet();
+        }
+
+        private static void meet() throws Exception {
+            THREADS.add(Thread.currentThread().getName());
+            BARRIER.await(10, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package test_cases;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import utilities.Config;
+import utilities.LocalSwagLabsServer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Local Swag Labs Server Test Cases")
+public class LocalSwagLabsServerTestCase {
+
+    private static final HttpClient client = HttpClient.newHttpClient();
+    private static String baseUrl;
+
+    @BeforeAll
+    public static void startServer() {
+        baseUrl = LocalSwagLabsServer.start().getBaseUrl();
+    }
+
+    @Test
+    @Tag("quick")
+    @DisplayName("LS001: Valid credentials are accepted and start a session")
+    public void testValidLogin() throws Exception {
+        HttpResponse<String> response = login(Config.VALID_USERNAME, Config.VALID_PASSWORD);
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Set-Cookie").orElse("").startsWith("session-username="),
+                "Successful login should set the session cookie");
+    }
+
+    @Test
+    @Tag("quick")
+    @DisplayName("LS002: Locked user gets the locked out error")
+    public void testLockedUser() throws Exception {
+        HttpResponse<String> response = login(Config.LOCKED_USERNAME, Config.LOCKED_USER_PASSWORD);
+        assertEquals(401, response.statusCode());
+        assertTrue(response.body().contains(LocalSwagLabsServer.LOCKED_OUT_ERROR));
+    }
+
+    @Test
+    @Tag("quick")
+    @DisplayName("LS003: Wrong password gets the no match error")
+    public void testInvalidCredentials() throws Exception {
+        HttpResponse<String> response = login(Config.INVALID_USERNAME, Config.INVALID_PASSWORD);
+        assertEquals(401, response.statusCode());
+        assertTrue(response.body().contains("Username and password do not match"));
+    }
+
+    @Test
+    @Tag("quick")
+    @DisplayName("LS004: Login and inventory pages are served")
+    public void testPagesServed() throws Exception {
+        HttpResponse<String> login = get(baseUrl);
+        assertEquals(200, login.statusCode());
+        assertTrue(login.body().contains("data-test=\"login-button\""));
+
+        HttpResponse<String> inventory = get(baseUrl + Config.INVENTORY_PAGE_PATH);
+        assertEquals(200, inventory.statusCode());
+        assertTrue(inventory.body().contains("inventory_list"));
+    }
+
+    private static HttpResponse<String> login(String username, String password) throws IOException, InterruptedException {
+        String form = "username=" + URLEncoder.encode(username, StandardCharsets.UTF_8)
+                + "&password=" + URLEncoder.encode(password, StandardCharsets.UTF_8);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "api/login"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static HttpResponse<String> get(String url) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(URI.create(url)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
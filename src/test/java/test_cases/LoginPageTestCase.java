@@ -1,6 +1,7 @@
 package test_cases;
 
 import configurations.BaseTest;
+import configurations.StorageStateCache;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
@@ -265,4 +266,16 @@ public class LoginPageTestCase extends BaseTest {
         logger.info("✅ TC015: PASSED - Error displayed for credentials: {}/{}", username, password);
     }
 
+    @Test
+    @Tag("functional")
+    @DisplayName("TC016: Cached session opens inventory page without UI login")
+    public void testCachedSessionOpensInventory() {
+        logger.info("🔷 TC016: Starting - Cached session login");
+        loginWithCachedSession(Config.VALID_USERNAME, Config.VALID_PASSWORD);
+        //The URL still shows the inventory page until a rejected session's redirect runs, so wait for what is shown
+        assertEquals(StorageStateCache.OUTCOME_INVENTORY, StorageStateCache.sessionOutcome(page),
+                "Cached session should open the inventory page, but was: " + getCurrentUrl());
+        logger.info("✅ TC016: PASSED - Cached session opened inventory page");
+    }
+
 }
@@ -0,0 +1,39 @@
+package test_cases;
+
+import configurations.RouteFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Route Filter Test Cases")
+public class RouteFilterTestCase {
+
+    @Test
+    @Tag("quick")
+    @DisplayName("RF001: Requests are blocked by resource type or URL pattern unless an allow pattern matches")
+    public void testIsAllowed() {
+        RouteFilter filter = new RouteFilter(Arrays.asList("Image", "font"),
+                Arrays.asList("google-analytics\\.com", "/tracking/"),
+                Collections.singletonList("saucedemo\\.com/static/media/logo"));
+
+        assertTrue(filter.isAllowed("document", "https://www.saucedemo.com/"));
+        assertTrue(filter.isAllowed("script", "https://www.saucedemo.com/static/js/main.js"));
+        assertFalse(filter.isAllowed("image", "https://www.saucedemo.com/static/media/bike.jpg"),
+                "Resource types should be compared without case");
+        assertFalse(filter.isAllowed("FONT", "https://fonts.example.com/font.woff2"));
+        assertFalse(filter.isAllowed("script", "https://www.google-analytics.com/analytics.js"));
+        assertFalse(filter.isAllowed("xhr", "https://example.com/tracking/event"), "URL patterns should match anywhere in the URL");
+        assertTrue(filter.isAllowed("image", "https://www.saucedemo.com/static/media/logo.svg"),
+                "An allow pattern should win over a blocked resource type");
+
+        RouteFilter allowOnly = new RouteFilter(Collections.emptyList(), Collections.singletonList(".*"),
+                Collections.singletonList("localhost"));
+        assertTrue(allowOnly.isAllowed("fetch", "http://localhost:8080/api/login"));
+        assertFalse(allowOnly.isAllowed("fetch", "https://example.com/"));
+    }
+}
@@ -0,0 +1,58 @@
+package test_cases;
+
+import configurations.RunHistory;
+import configurations.RunHistoryReport;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Run History Test Cases")
+public class RunHistoryTestCase {
+
+    @Test
+    @Tag("quick")
+    @DisplayName("RH001: Appended runs are indexed and read back from their segment")
+    public void testAppendAndRead(@TempDir Path directory) throws IOException {
+        for (int i = 1; i <= 3; i++) {
+            RunHistory.append(directory, RunHistory.newRun(Map.of("test:A.a", 100.0 * i, "action:click", 1.5 * i)));
+        }
+
+        List<RunHistory.IndexEntry> index = RunHistory.index(directory);
+        assertEquals(3, index.size());
+        RunHistory.Run second = RunHistory.read(directory, index.get(1));
+        assertEquals(index.get(1).getId(), second.getId());
+        assertEquals(200.0, second.getValues().get("test:A.a"));
+        assertEquals(3.0, second.getValues().get("action:click"));
+        assertTrue(index.get(0).sameSetup(index.get(2)), "Runs of one JVM should have the same browser and headless mode");
+    }
+
+    @Test
+    @Tag("quick")
+    @DisplayName("RH002: Only slowdowns well outside the baseline's spread are regressions")
+    public void testRegressionDetection() {
+        List<RunHistory.Run> baseline = new ArrayList<>();
+        double[] durations = {1000, 1040, 980, 1010, 990, 1500};
+        for (double duration : durations) {
+            baseline.add(new RunHistory.Run("r", "", "c", "chromium", true, Map.of("test:A.a", duration, "phase:setUp", 2.0)));
+        }
+
+        List<RunHistoryReport.Comparison> slow = RunHistoryReport.compare(
+                new RunHistory.Run("now", "", "c", "chromium", true, Map.of("test:A.a", 1400.0, "phase:setUp", 2.6)), baseline);
+        assertEquals("test:A.a", slow.get(0).getKey());
+        assertTrue(slow.get(0).isRegression(), "40% slower than a steady baseline should be flagged");
+        assertFalse(slow.get(1).isRegression(), "A fraction of a millisecond should not be flagged");
+
+        List<RunHistoryReport.Comparison> usual = RunHistoryReport.compare(
+                new RunHistory.Run("now", "", "c", "chromium", true, Map.of("test:A.a", 1060.0)), baseline);
+        assertFalse(usual.get(0).isRegression(), "A value inside the usual spread should not be flagged");
+    }
+}
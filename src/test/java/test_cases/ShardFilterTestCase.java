@@ -0,0 +1,55 @@
+package test_cases;
+
+import configurations.ShardFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Shard Filter Test Cases")
+public class ShardFilterTestCase {
+
+    @Test
+    @Tag("quick")
+    @DisplayName("SH001: Shards get the same total time when durations allow it")
+    public void testBalancedAssignment() {
+        List<String> keys = Arrays.asList("A.a", "A.b", "A.c", "A.d", "A.e");
+        Map<String, Long> timings = new HashMap<>();
+        timings.put("A.a", 8000L);
+        timings.put("A.b", 7000L);
+        timings.put("A.c", 6000L);
+        timings.put("A.d", 5000L);
+        timings.put("A.e", 4000L);
+
+        Map<String, Integer> plan = ShardFilter.assign(keys, timings, 2);
+
+        long[] load = new long[2];
+        for (String key : keys) {
+            load[plan.get(key)] += timings.get(key);
+        }
+        assertEquals(5, plan.size(), "Every test should be assigned to a shard");
+        assertTrue(Math.abs(load[0] - load[1]) <= 4000, "Shard totals should be close, but were " + Arrays.toString(load));
+    }
+
+    @Test
+    @Tag("quick")
+    @DisplayName("SH002: Tests without history are spread evenly and the plan is the same every time")
+    public void testUnknownDurationsAreSpreadDeterministically() {
+        List<String> keys = Arrays.asList("B.a", "B.b", "B.c", "B.d", "B.e", "B.f");
+
+        Map<String, Integer> plan = ShardFilter.assign(keys, new HashMap<>(), 3);
+
+        int[] counts = new int[3];
+        for (String key : keys) {
+            counts[plan.get(key)]++;
+        }
+        assertArrayEquals(new int[]{2, 2, 2}, counts);
+        assertEquals(plan, ShardFilter.assign(keys, new HashMap<>(), 3), "Every shard must compute the same plan");
+    }
+}
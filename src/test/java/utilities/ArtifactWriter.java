@@ -0,0 +1,140 @@
+package utilities;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Writes test artifacts (screenshots, DOM, logs, traces) to {@link Config#SCREENSHOT_DIR} on a single
+ * background thread, so tests only pay for capturing the bytes. After each write the oldest files
+ * are deleted until the directory fits in {@link Config#getArtifactBudgetMb()}; the file just written
+ * is never one of them. Pending writes are finished before the JVM exits.
+ */
+public final class ArtifactWriter {
+    private static final Logger logger = LoggerFactory.getLogger(ArtifactWriter.class);
+    private static final int SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "artifact-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(ArtifactWriter::shutdown, "artifact-writer-shutdown"));
+    }
+
+    private ArtifactWriter() {
+    }
+
+    //Artifact file of a test, e.g. screenshots/LoginPageTestCase.testX.png; odd characters are replaced
+    public static Path pathFor(String name, String extension) {
+        return Paths.get(Config.SCREENSHOT_DIR, name.replaceAll("[^A-Za-z0-9._#@-]", "_") + extension);
+    }
+
+    public static void write(Path file, byte[] content) {
+        WRITER.execute(() -> {
+            try {
+                Path directory = file.toAbsolutePath().getParent();
+                Files.createDirectories(directory);
+                //Written aside and moved, so a half-written artifact is never left behind
+                Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+                Files.write(temp, content);
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                logger.debug("Artifact written: {} ({} bytes)", file, content.length);
+                enforceBudget(directory, Config.getArtifactBudgetMb() * 1024L * 1024L, file);
+            } catch (IOException e) {
+                logger.warn("Failed to write artifact: {}", file, e);
+            }
+        });
+    }
+
+    //Moves a finished file, e.g. a trace saved by Playwright, into the artifact directory; the source is deleted either way
+    public static void move(Path source, Path file) {
+        WRITER.execute(() -> {
+            try {
+                Path directory = file.toAbsolutePath().getParent();
+                Files.createDirectories(directory);
+                //The source may be on another file system, so it is copied aside first
+                Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+                Files.move(source, temp, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                logger.debug("Artifact moved: {} ({} bytes)", file, Files.size(file));
+                enforceBudget(directory, Config.getArtifactBudgetMb() * 1024L * 1024L, file);
+            } catch (IOException e) {
+                logger.warn("Failed to move artifact: {}", file, e);
+                try {
+                    Files.deleteIfExists(source);
+                } catch (IOException ignored) {
+                    //Left in the temp directory
+                }
+            }
+        });
+    }
+
+    //Finishes the queued writes; nothing can be written afterwards
+    static void shutdown() {
+        WRITER.shutdown();
+        try {
+            if (!WRITER.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                logger.warn("Artifact writes still pending after {}s", SHUTDOWN_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //Deletes the least recently written files, except the given one, until the directory fits in the budget
+    static void enforceBudget(Path directory, long budgetBytes, Path keep) throws IOException {
+        List<StoredFile> files = new ArrayList<>();
+        long total = 0;
+        try (Stream<Path> stream = Files.list(directory)) {
+            for (Path path : (Iterable<Path>) stream.filter(Files::isRegularFile)::iterator) {
+                StoredFile file = new StoredFile(path, Files.size(path), Files.getLastModifiedTime(path).toMillis());
+                files.add(file);
+                total += file.size;
+            }
+        }
+        if (total <= budgetBytes) {
+            return;
+        }
+        files.sort(Comparator.comparingLong(file -> file.modifiedMillis));
+        for (StoredFile file : files) {
+            if (total <= budgetBytes) {
+                break;
+            }
+            if (file.path.equals(keep.toAbsolutePath())) {
+                continue;
+            }
+            if (Files.deleteIfExists(file.path)) {
+                total -= file.size;
+                logger.debug("Evicted artifact: {}", file.path);
+            }
+        }
+        logger.info("Artifact directory trimmed to {} KB (budget {} KB)", total / 1024, budgetBytes / 1024);
+    }
+
+    private static final class StoredFile {
+        private final Path path;
+        private final long size;
+        private final long modifiedMillis;
+
+        private StoredFile(Path path, long size, long modifiedMillis) {
+            this.path = path;
+            this.size = size;
+            this.modifiedMillis = modifiedMillis;
+        }
+    }
+}
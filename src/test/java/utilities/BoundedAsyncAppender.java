@@ -0,0 +1,81 @@
+package utilities;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AsyncAppender whose behaviour on a full queue is picked by name:
+ * "block" (the default) waits for space, "discard-info" (logback default) drops TRACE/DEBUG/INFO once the queue
+ * is 80% full, and "discard-all" never blocks the test thread and drops whatever does not fit.
+ * Dropped events are counted, and the count is logged as a warning when the appender stops.
+ */
+public class BoundedAsyncAppender extends AsyncAppender {
+    private String overflowPolicy = "block";
+    private final AtomicLong discarded = new AtomicLong();
+
+    public void setOverflowPolicy(String overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    @Override
+    public void start() {
+        switch (overflowPolicy.trim().toLowerCase(Locale.ROOT)) {
+            case "block":
+                setDiscardingThreshold(0);
+                setNeverBlock(false);
+                break;
+            case "discard-all":
+                setDiscardingThreshold(0);
+                setNeverBlock(true);
+                break;
+            case "discard-info":
+                setDiscardingThreshold(getQueueSize() / 5);
+                setNeverBlock(false);
+                break;
+            default:
+                addError("Unknown overflow policy [" + overflowPolicy + "], using block");
+                setDiscardingThreshold(0);
+                setNeverBlock(false);
+        }
+        super.start();
+    }
+
+    //Only asked once the queue is past the discarding threshold, so a true answer means the event is dropped
+    @Override
+    protected boolean isDiscardable(ILoggingEvent event) {
+        boolean discardable = super.isDiscardable(event);
+        if (discardable) {
+            discarded.incrementAndGet();
+        }
+        return discardable;
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        //A never-blocking offer to a full queue drops the event without telling; counted here, so the count is approximate
+        if (isNeverBlock() && getRemainingCapacity() == 0) {
+            discarded.incrementAndGet();
+        }
+        super.append(event);
+    }
+
+    //The warning goes through this appender's own queue, which is drained before it stops
+    @Override
+    public void stop() {
+        long count = discarded.get();
+        if (isStarted() && count > 0) {
+            LoggerContext loggerContext = (LoggerContext) getContext();
+            super.append(new LoggingEvent(BoundedAsyncAppender.class.getName(),
+                    loggerContext.getLogger(BoundedAsyncAppender.class), Level.WARN,
+                    count + " log event(s) were discarded by appender " + getName() + " (LOG_OVERFLOW=" + overflowPolicy + ")",
+                    null, null));
+        }
+        super.stop();
+    }
+}
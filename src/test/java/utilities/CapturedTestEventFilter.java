@@ -0,0 +1,32 @@
+package utilities;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
+
+/**
+ * Keeps test-tagged events below a level out of the shared appenders while per-test capture is on;
+ * those lines only reach disk through {@link TestLogCaptureAppender} when their test fails.
+ */
+public class CapturedTestEventFilter extends Filter<ILoggingEvent> {
+    private boolean enabled = true;
+    private Level level = Level.WARN;
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void setLevel(String level) {
+        this.level = Level.toLevel(level, Level.WARN);
+    }
+
+    @Override
+    public FilterReply decide(ILoggingEvent event) {
+        if (enabled && !event.getLevel().isGreaterOrEqual(level)
+                && event.getMDCPropertyMap().containsKey("testId")) {
+            return FilterReply.DENY;
+        }
+        return FilterReply.NEUTRAL;
+    }
+}
@@ -2,29 +2,69 @@ package utilities;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
 public class Config {
     protected static final Logger logger = LoggerFactory.getLogger(Config.class);
 
+    //SETTINGS ARE READ FROM A SNAPSHOT OF THE LAYERED CONFIGURATION (SEE ConfigSnapshot); A RELOAD ONLY TAKES THE RELOADABLE KEYS
+    private static volatile ConfigSnapshot snapshot = ConfigSnapshot.load();
+
+    //SECONDS BETWEEN CHECKS OF THE CONFIGURATION FILES FOR CHANGES (0 = NO HOT RELOAD)
+    public static final int DEFAULT_CONFIG_RELOAD_SECONDS = 0;
+
+    //TUNING KEYS A RELOAD MAY CHANGE WHILE TESTS RUN; THE REST (BROWSER, BASE_URL, SHARD_*, THREADS, ...) IDENTIFY THE RUN
+    public static final Set<String> RELOADABLE_KEYS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "BROWSER_TIMEOUT", "EXPLICIT_WAIT", "NETWORK_IDLE_QUIET_MILLIS", "CLOSE_TIMEOUT_SECONDS",
+            "MAX_RETRIES", "QUARANTINE_MIN_RUNS", "QUARANTINE_THRESHOLD_PERCENT",
+            "RECYCLE_AFTER_CONTEXTS", "RECYCLE_AFTER_MB", "ARTIFACT_BUDGET_MB")));
+
     //URL CONFIGURATION
     public static final String DEFAULT_BASE_URL = "https://www.saucedemo.com/";
     public static final String INVENTORY_PAGE_ENDPOINT = "/inventory";
+    public static final String INVENTORY_PAGE_PATH = "inventory.html";
+
+    //LOCAL STAND-IN SERVER (USED INSTEAD OF BASE_URL WHEN LOCAL_SERVER=true)
+    public static final boolean DEFAULT_LOCAL_SERVER = false;
+    public static final int DEFAULT_LOCAL_SERVER_PORT = 0;
+    public static final int DEFAULT_LOCAL_SERVER_LATENCY_MS = 0;
+    public static final int DEFAULT_LOCAL_SERVER_JITTER_MS = 0;
 
     //BROWSER CONFIGURATION
     public static final String DEFAULT_BROWSER = "chromium";
     public static final boolean DEFAULT_HEADLESS_MODE = true;
 
+    //REUSE ONE PLAYWRIGHT AND BROWSER PER WORKER THREAD (FALSE = LAUNCH A FRESH BROWSER PER TEST)
+    public static final boolean DEFAULT_BROWSER_REUSE = true;
+
+    //NUMBER OF PARALLEL TEST WORKERS (0 = ONE PER CPU CORE)
+    public static final int DEFAULT_THREAD_COUNT = 0;
+
     //TIMEOUT FOR PAGE NAVIGATION AND LOADING
-    public static final int BROWSER_TIMEOUT = 30000;
+    public static final int DEFAULT_BROWSER_TIMEOUT = 30000;
 
     //TIMEOUT FOR EXPLICIT WAITS ON ELEMENTS
-    public static final int EXPLICIT_WAIT = 10000;
+    public static final int DEFAULT_EXPLICIT_WAIT = 10000;
 
     //TIMEOUT FOR IMPLICIT WAIT
-    public static final int IMPLICIT_WAIT = 5000;
+    public static final int DEFAULT_IMPLICIT_WAIT = 5000;
+
+    //QUIET WINDOW WITHOUT REQUESTS BEFORE THE NETWORK COUNTS AS IDLE
+    public static final int DEFAULT_NETWORK_IDLE_QUIET_MILLIS = 500;
 
     //VIEWPORT CONFIGURATION
-    public static final int VIEWPORT_WIDTH = 1080;
-    public static final int VIEWPORT_HEIGHT = 800;
+    public static final int DEFAULT_VIEWPORT_WIDTH = 1080;
+    public static final int DEFAULT_VIEWPORT_HEIGHT = 800;
 
     //VALID CREDENTIALS
     public static final String VALID_USERNAME = "standard_user";
@@ -39,54 +79,371 @@ public class Config {
     public static final String LOCKED_USER_PASSWORD = "secret_sauce";
 
     //NUMBER OF TEST FOR FLAKY TESTS
-    public static final int MAX_RETRIES = 3;
+    public static final int DEFAULT_MAX_RETRIES = 3;
+
+    //FILE KEEPING HOW OFTEN EACH TEST FLAKED, ACROSS RUNS
+    public static final String FLAKINESS_HISTORY_FILE = "test-history/flakiness.properties";
+
+    //A TEST IS QUARANTINED WHEN AT LEAST THIS PERCENTAGE OF ITS RUNS (AND AT LEAST MIN RUNS) NEEDED A RETRY
+    public static final int DEFAULT_QUARANTINE_THRESHOLD_PERCENT = 30;
+    public static final int DEFAULT_QUARANTINE_MIN_RUNS = 5;
 
     // DIRECTORY FOR STORING SCREENSHOTS
     public static final String SCREENSHOT_DIR = "screenshots";
 
+    //DISK BUDGET OF THE SCREENSHOT DIRECTORY; OLDEST FAILURE ARTIFACTS ARE DELETED ABOVE IT
+    public static final int DEFAULT_ARTIFACT_BUDGET_MB = 200;
+
+    // DIRECTORY FOR TIMING METRICS EXPORTED AT THE END OF THE RUN (JSON + PROMETHEUS TEXT)
+    public static final String METRICS_DIR = "target/metrics";
+
+    // DIRECTORY FOR CACHED LOGIN SESSIONS (STORAGE STATE FILES)
+    public static final String STORAGE_STATE_DIR = ".auth";
+
+    //MINUTES A CACHED LOGIN SESSION IS REUSED BEFORE LOGGING IN AGAIN
+    public static final int DEFAULT_STORAGE_STATE_TTL_MINUTES = 30;
+
+    //NETWORK FILTER MODE: "off", "lean" (block images, fonts, media and analytics) OR "custom"
+    public static final String DEFAULT_NETWORK_FILTER_MODE = "off";
+
+    //PLAYWRIGHT TRACING: "off", "on-failure" (trace every test, keep failures) OR "sample" (trace a percentage of tests)
+    public static final String DEFAULT_TRACE_MODE = "off";
+    public static final int DEFAULT_TRACE_SAMPLE_PERCENT = 10;
+    //SIZE CAP FOR SAMPLED TRACES ONLY; TRACES OF FAILED TESTS ARE KEPT WHATEVER THEIR SIZE, SO IT NEVER APPLIES IN on-failure MODE
+    public static final int DEFAULT_TRACE_MAX_MB = 50;
+
+    //HISTORICAL DURATION OF EVERY TEST METHOD, USED TO BALANCE SHARDS
+    public static final String TIMINGS_FILE = "test-history/timings.properties";
+
+    //APPEND-ONLY HISTORY OF TEST, PHASE AND PAGE ACTION DURATIONS OF EVERY RUN; A NEW SEGMENT FILE IS STARTED ABOVE THE SIZE
+    public static final String RUN_HISTORY_DIR = "test-history/runs";
+    public static final int DEFAULT_RUN_HISTORY_SEGMENT_MB = 16;
+
+    //REGRESSION REPORT (configurations.RunHistoryReport): BASELINE WINDOW AND HOW FAR ABOVE IT A VALUE MUST BE
+    public static final int DEFAULT_REGRESSION_BASELINE_RUNS = 10;
+    public static final int DEFAULT_REGRESSION_MIN_BASELINE_RUNS = 5;
+    public static final int DEFAULT_REGRESSION_Z = 3;
+    public static final int DEFAULT_REGRESSION_MIN_PERCENT = 20;
+
+    // DIRECTORY FOR THE PARTIAL REPORT OF EACH SHARD AND THE MERGED REPORT
+    public static final String SHARD_REPORT_DIR = "target/shards";
+
+    //A POOLED BROWSER IS REPLACED AFTER THIS MANY CONTEXTS OR THIS MUCH RESIDENT MEMORY (BROWSER + DRIVER PROCESSES)
+    public static final int DEFAULT_RECYCLE_AFTER_CONTEXTS = 100;
+    public static final int DEFAULT_RECYCLE_AFTER_MB = 1500;
+
+    //SECONDS TO WAIT FOR A PAGE, CONTEXT OR BROWSER TO CLOSE BEFORE GIVING UP ON IT
+    public static final int DEFAULT_CLOSE_TIMEOUT_SECONDS = 10;
+
+    //BROWSERS PER ENGINE LENT TO THE TEST THREADS IN TURN (0 = ONE BROWSER PER THREAD); SEE configurations.VirtualThreadRunner
+    public static final int DEFAULT_LANES = 0;
+
+    //ENGINES OF A MATRIX RUN (configurations.MatrixRunner)
+    public static final String DEFAULT_MATRIX_BROWSERS = "chromium,firefox,webkit";
+
+    //LOGIN LOAD RUN (configurations.LoginLoadRunner): CONCURRENT SESSIONS SHARED BY A FEW BROWSERS, RAMP-UP AND LENGTH
+    public static final int DEFAULT_LOAD_SESSIONS = 10;
+    public static final int DEFAULT_LOAD_BROWSERS = 2;
+    public static final int DEFAULT_LOAD_RAMP_UP_SECONDS = 0;
+    public static final int DEFAULT_LOAD_DURATION_SECONDS = 60;
+    //WEIGHTS OF THE LOGIN KINDS ATTEMPTED BY A LOAD RUN
+    public static final String DEFAULT_LOAD_MIX = "success=8,locked=1,invalid=1";
+
+    //TAGS OF THE FAST LANE: RUN FIRST WHEN FAST_LANE IS ON, COUNTED FOR FAIL-FAST
+    public static final String DEFAULT_FAST_LANE_TAGS = "smoke,critical";
+
     //ENABLE DETAILED LOGGING
     public static final boolean ENABLE_DETAILED_LOGGING = true;
 
-    public static String getBaseUrl() {
-        String envUrl = System.getenv("BASE_URL");
-        if (envUrl != null && !envUrl.trim().isEmpty()) {
-            return envUrl;
+    static {
+        int reloadSeconds = snapshot.getInt("CONFIG_RELOAD_SECONDS", DEFAULT_CONFIG_RELOAD_SECONDS);
+        if (reloadSeconds > 0) {
+            ScheduledExecutorService watcher = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "config-reload");
+                thread.setDaemon(true);
+                return thread;
+            });
+            watcher.scheduleWithFixedDelay(() -> {
+                if (snapshot.isStale()) {
+                    reload();
+                }
+            }, reloadSeconds, reloadSeconds, TimeUnit.SECONDS);
         }
-        return DEFAULT_BASE_URL;
     }
 
-    public static String getBrowser() {
-        String envBrowser = System.getenv("BROWSER");
-        if (envBrowser != null && !envBrowser.trim().isEmpty()) {
-            return envBrowser.toLowerCase();
+    public static ConfigSnapshot snapshot() {
+        return snapshot;
+    }
+
+    //Reads every layer again but only takes the RELOADABLE_KEYS; changes to any other key are reported and ignored
+    public static synchronized ConfigSnapshot reload() {
+        ConfigSnapshot reloaded = ConfigSnapshot.load();
+        Set<String> ignored = new TreeSet<>(snapshot.changedKeys(reloaded));
+        ignored.removeAll(RELOADABLE_KEYS);
+        if (!ignored.isEmpty()) {
+            logger.warn("Configuration reload ignores changes to {}: they take effect on the next run", ignored);
+        }
+        snapshot = snapshot.withValuesOf(reloaded, RELOADABLE_KEYS);
+        logger.info("Configuration reloaded (profiles {})", snapshot.getProfiles());
+        return snapshot;
+    }
+
+    public static String getBaseUrl() {
+        if (isLocalServerEnabled()) {
+            return LocalSwagLabsServer.start().getBaseUrl();
         }
-        return DEFAULT_BROWSER;
+        return snapshot.getString("BASE_URL", DEFAULT_BASE_URL);
     }
 
-    public static String BROWSER = getBrowser();
+    public static String getBrowser() {
+        return snapshot.getString("BROWSER", DEFAULT_BROWSER).toLowerCase();
+    }
 
     public static boolean isHeadlessMode() {
-        String headlessEnv = System.getenv("HEADLESS");
-        if (headlessEnv != null && !headlessEnv.trim().isEmpty()) {
-            return Boolean.parseBoolean(headlessEnv);
+        return snapshot.getBoolean("HEADLESS", DEFAULT_HEADLESS_MODE);
+    }
+
+    public static boolean isBrowserReuseEnabled() {
+        return snapshot.getBoolean("REUSE_BROWSER", DEFAULT_BROWSER_REUSE);
+    }
+
+    public static int getBrowserTimeout() {
+        return Math.max(1, snapshot.getInt("BROWSER_TIMEOUT", DEFAULT_BROWSER_TIMEOUT));
+    }
+
+    public static int getExplicitWait() {
+        return Math.max(1, snapshot.getInt("EXPLICIT_WAIT", DEFAULT_EXPLICIT_WAIT));
+    }
+
+    public static int getNetworkIdleQuietMillis() {
+        return Math.max(0, snapshot.getInt("NETWORK_IDLE_QUIET_MILLIS", DEFAULT_NETWORK_IDLE_QUIET_MILLIS));
+    }
+
+    public static int getViewportWidth() {
+        return Math.max(1, snapshot.getInt("VIEWPORT_WIDTH", DEFAULT_VIEWPORT_WIDTH));
+    }
+
+    public static int getViewportHeight() {
+        return Math.max(1, snapshot.getInt("VIEWPORT_HEIGHT", DEFAULT_VIEWPORT_HEIGHT));
+    }
+
+    public static int getThreadCount() {
+        int threads = getInt("THREADS", DEFAULT_THREAD_COUNT);
+        return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    public static int getStorageStateTtlMinutes() {
+        return getInt("STORAGE_STATE_TTL_MINUTES", DEFAULT_STORAGE_STATE_TTL_MINUTES);
+    }
+
+    public static int getMaxRetries() {
+        return getInt("MAX_RETRIES", DEFAULT_MAX_RETRIES);
+    }
+
+    public static int getQuarantineThresholdPercent() {
+        return getInt("QUARANTINE_THRESHOLD_PERCENT", DEFAULT_QUARANTINE_THRESHOLD_PERCENT);
+    }
+
+    public static int getQuarantineMinRuns() {
+        return getInt("QUARANTINE_MIN_RUNS", DEFAULT_QUARANTINE_MIN_RUNS);
+    }
+
+    //0-based index of the shard this JVM runs
+    public static int getShardIndex() {
+        return getInt("SHARD_INDEX", 0);
+    }
+
+    public static int getShardCount() {
+        return Math.max(1, getInt("SHARD_COUNT", 1));
+    }
+
+    public static int getRunHistorySegmentMb() {
+        return Math.max(1, getInt("RUN_HISTORY_SEGMENT_MB", DEFAULT_RUN_HISTORY_SEGMENT_MB));
+    }
+
+    public static int getRegressionBaselineRuns() {
+        return Math.max(1, getInt("REGRESSION_BASELINE_RUNS", DEFAULT_REGRESSION_BASELINE_RUNS));
+    }
+
+    public static int getRegressionMinBaselineRuns() {
+        return Math.max(1, getInt("REGRESSION_MIN_BASELINE_RUNS", DEFAULT_REGRESSION_MIN_BASELINE_RUNS));
+    }
+
+    public static int getRegressionZ() {
+        return getInt("REGRESSION_Z", DEFAULT_REGRESSION_Z);
+    }
+
+    public static int getRegressionMinPercent() {
+        return getInt("REGRESSION_MIN_PERCENT", DEFAULT_REGRESSION_MIN_PERCENT);
+    }
+
+    public static int getRecycleAfterContexts() {
+        return getInt("RECYCLE_AFTER_CONTEXTS", DEFAULT_RECYCLE_AFTER_CONTEXTS);
+    }
+
+    public static int getRecycleAfterMb() {
+        return getInt("RECYCLE_AFTER_MB", DEFAULT_RECYCLE_AFTER_MB);
+    }
+
+    public static int getCloseTimeoutSeconds() {
+        return getInt("CLOSE_TIMEOUT_SECONDS", DEFAULT_CLOSE_TIMEOUT_SECONDS);
+    }
+
+    public static int getLanes() {
+        return Math.max(0, getInt("LANES", DEFAULT_LANES));
+    }
+
+    public static List<String> getMatrixBrowsers() {
+        List<String> browsers = getList("MATRIX_BROWSERS");
+        return browsers.isEmpty() ? List.of(DEFAULT_MATRIX_BROWSERS.split(",")) : browsers;
+    }
+
+    //MATRIX_THREADS is either one number for every engine or "engine=threads" pairs, e.g. "chromium=4,webkit=2"
+    public static int getMatrixThreads(String browser) {
+        for (String item : getList("MATRIX_THREADS")) {
+            int separator = item.indexOf('=');
+            try {
+                if (separator < 0) {
+                    return Math.max(1, Integer.parseInt(item));
+                }
+                if (item.substring(0, separator).trim().equalsIgnoreCase(browser)) {
+                    return Math.max(1, Integer.parseInt(item.substring(separator + 1).trim()));
+                }
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring invalid MATRIX_THREADS value: {}", item);
+            }
         }
-        return DEFAULT_HEADLESS_MODE;
+        return getThreadCount();
+    }
+
+    //DataDrivenRunner: skip the rows already in the results file instead of starting it over
+    public static boolean isResumeEnabled() {
+        return snapshot.getBoolean("RESUME", false);
+    }
+
+    public static int getLoadSessions() {
+        return Math.max(1, getInt("LOAD_SESSIONS", DEFAULT_LOAD_SESSIONS));
+    }
+
+    public static int getLoadBrowsers() {
+        return Math.max(1, getInt("LOAD_BROWSERS", DEFAULT_LOAD_BROWSERS));
+    }
+
+    public static int getLoadRampUpSeconds() {
+        return Math.max(0, getInt("LOAD_RAMP_UP_SECONDS", DEFAULT_LOAD_RAMP_UP_SECONDS));
+    }
+
+    public static int getLoadDurationSeconds() {
+        return Math.max(1, getInt("LOAD_DURATION_SECONDS", DEFAULT_LOAD_DURATION_SECONDS));
+    }
+
+    //"kind=weight" pairs, e.g. "success=8,locked=1,invalid=1"
+    public static List<String> getLoadMix() {
+        List<String> mix = getList("LOAD_MIX");
+        return mix.isEmpty() ? List.of(DEFAULT_LOAD_MIX.split(",")) : mix;
+    }
+
+    public static boolean isFastLaneEnabled() {
+        return snapshot.getBoolean("FAST_LANE", false);
+    }
+
+    public static List<String> getFastLaneTags() {
+        List<String> tags = getList("FAST_LANE_TAGS");
+        return tags.isEmpty() ? List.of(DEFAULT_FAST_LANE_TAGS.split(",")) : tags;
+    }
+
+    //Failed fast-lane tests after which the other tests are skipped; 0 turns fail-fast off
+    public static int getFailFastThreshold() {
+        return getInt("FAIL_FAST_THRESHOLD", 0);
+    }
+
+    public static int getArtifactBudgetMb() {
+        return getInt("ARTIFACT_BUDGET_MB", DEFAULT_ARTIFACT_BUDGET_MB);
+    }
+
+    public static String getTraceMode() {
+        return snapshot.getString("TRACE_MODE", DEFAULT_TRACE_MODE).toLowerCase();
+    }
+
+    public static int getTraceSamplePercent() {
+        return Math.max(0, Math.min(100, getInt("TRACE_SAMPLE_PERCENT", DEFAULT_TRACE_SAMPLE_PERCENT)));
+    }
+
+    public static int getTraceMaxMb() {
+        return getInt("TRACE_MAX_MB", DEFAULT_TRACE_MAX_MB);
+    }
+
+    public static String getNetworkFilterMode() {
+        return snapshot.getString("NETWORK_FILTER", DEFAULT_NETWORK_FILTER_MODE).toLowerCase();
+    }
+
+    public static List<String> getBlockedResourceTypes() {
+        return getList("BLOCKED_RESOURCE_TYPES");
+    }
+
+    public static List<String> getBlockedUrlPatterns() {
+        return getList("BLOCKED_URL_PATTERNS");
+    }
+
+    public static List<String> getAllowedUrlPatterns() {
+        return getList("ALLOWED_URL_PATTERNS");
+    }
+
+    //Comma separated values, empty list when the setting is not set
+    private static List<String> getList(String name) {
+        return snapshot.getList(name);
+    }
+
+    private static int getInt(String name, int defaultValue) {
+        return snapshot.getInt(name, defaultValue);
     }
 
     public static String getInventoryUrl() {
-        return getBaseUrl() + INVENTORY_PAGE_ENDPOINT;
+        String baseUrl = getBaseUrl();
+        return (baseUrl.endsWith("/") ? baseUrl : baseUrl + "/") + INVENTORY_PAGE_PATH;
+    }
+
+    public static boolean isLocalServerEnabled() {
+        return snapshot.getBoolean("LOCAL_SERVER", DEFAULT_LOCAL_SERVER);
+    }
+
+    public static int getLocalServerPort() {
+        return getInt("LOCAL_SERVER_PORT", DEFAULT_LOCAL_SERVER_PORT);
+    }
+
+    public static int getLocalServerLatencyMillis() {
+        return getInt("LOCAL_SERVER_LATENCY_MS", DEFAULT_LOCAL_SERVER_LATENCY_MS);
+    }
+
+    public static int getLocalServerJitterMillis() {
+        return getInt("LOCAL_SERVER_JITTER_MS", DEFAULT_LOCAL_SERVER_JITTER_MS);
     }
 
     //Useful for debugging and CI/CD verification
     public static void logConfiguration() {
         logger.info("=".repeat(20)+ "TEST CONFIGURATION" +"=".repeat(20));
+        logger.info("Profiles: " + snapshot.getProfiles());
         logger.info("Base URL: " + getBaseUrl());
         logger.info("Browser: " + getBrowser());
         logger.info("Headless Mode: " + isHeadlessMode());
-        logger.info("Viewport: " + VIEWPORT_WIDTH + "x" + VIEWPORT_HEIGHT);
-        logger.info("Browser Timeout: " + BROWSER_TIMEOUT + "ms");
-        logger.info("Explicit Wait: " + EXPLICIT_WAIT + "ms");
-        logger.info("Max Retries: " + MAX_RETRIES);
+        logger.info("Browser Reuse: " + isBrowserReuseEnabled());
+        logger.info("Lanes: " + getLanes());
+        logger.info("Browser Recycling: after " + getRecycleAfterContexts() + " contexts or " + getRecycleAfterMb() + "MB");
+        logger.info("Worker Threads: " + getThreadCount());
+        logger.info("Shard: " + getShardIndex() + " of " + getShardCount());
+        logger.info("Fast Lane: " + isFastLaneEnabled() + " " + getFastLaneTags());
+        logger.info("Fail Fast Threshold: " + getFailFastThreshold());
+        logger.info("Network Filter: " + getNetworkFilterMode());
+        logger.info("Local Server: " + isLocalServerEnabled());
+        logger.info("Trace Mode: " + getTraceMode());
+        logger.info("Viewport: " + getViewportWidth() + "x" + getViewportHeight());
+        logger.info("Browser Timeout: " + getBrowserTimeout() + "ms");
+        logger.info("Explicit Wait: " + getExplicitWait() + "ms");
+        logger.info("Max Retries: " + getMaxRetries());
+        logger.info("Artifact Budget: " + getArtifactBudgetMb() + "MB");
+        for (Map.Entry<String, String> setting : snapshot.getFileKeySources().entrySet()) {
+            logger.info("Setting " + setting.getKey() + " from " + setting.getValue());
+        }
         logger.info("=".repeat(60));
     }
 
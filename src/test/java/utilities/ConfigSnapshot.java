@@ -0,0 +1,283 @@
+package utilities;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Immutable view of the configuration, resolved once from these layers (later ones win):
+ * the swaglabs.properties file on the classpath, the file named by CONFIG_FILE, the profile files
+ * named by PROFILE (comma separated, applied in order; profiles/&lt;name&gt;.properties in the working
+ * directory, else on the classpath), environment variables and system properties. Every layer uses
+ * the same keys as the environment variables. Keys no layer sets fall back to the DEFAULT_* constants
+ * of {@link Config}, which its getters pass in. The files a snapshot was read from are remembered,
+ * so {@link #isStale()} tells when a reload would see something new; {@link #withValuesOf} lets a
+ * reload take only some keys from the new snapshot.
+ */
+public final class ConfigSnapshot {
+    private static final Logger logger = LoggerFactory.getLogger(ConfigSnapshot.class);
+
+    public static final String BASE_FILE = "swaglabs.properties";
+    public static final String PROFILE_DIR = "profiles";
+
+    private final Map<String, String> values;
+    private final Map<String, String> sources;
+    private final Set<String> fileKeys;
+    private final List<String> profiles;
+    private final Map<Path, Long> files;
+
+    private ConfigSnapshot(Map<String, String> values, Map<String, String> sources, Set<String> fileKeys,
+                           List<String> profiles, Map<Path, Long> files) {
+        this.values = Collections.unmodifiableMap(values);
+        this.sources = Collections.unmodifiableMap(sources);
+        this.fileKeys = Collections.unmodifiableSet(fileKeys);
+        this.profiles = Collections.unmodifiableList(profiles);
+        this.files = Collections.unmodifiableMap(files);
+    }
+
+    public static ConfigSnapshot load() {
+        Map<String, String> systemProperties = new HashMap<>();
+        for (String name : System.getProperties().stringPropertyNames()) {
+            systemProperties.put(name, System.getProperty(name));
+        }
+        return load(System.getenv(), systemProperties);
+    }
+
+    public static ConfigSnapshot load(Map<String, String> environment, Map<String, String> systemProperties) {
+        Layers layers = new Layers();
+        layers.addResource(BASE_FILE, "classpath " + BASE_FILE);
+        //Which files to read is itself only taken from the environment and system properties
+        String configFile = bootstrap(environment, systemProperties, "CONFIG_FILE");
+        if (configFile != null) {
+            if (!layers.addFile(Paths.get(configFile), configFile)) {
+                logger.warn("CONFIG_FILE not found: {}", Paths.get(configFile).toAbsolutePath());
+            }
+        }
+        List<String> profiles = new ArrayList<>();
+        String profileSetting = bootstrap(environment, systemProperties, "PROFILE");
+        for (String profile : split(profileSetting)) {
+            String name = profile + ".properties";
+            if (layers.addFile(Paths.get(PROFILE_DIR, name), "profile " + profile)
+                    || layers.addResource(PROFILE_DIR + "/" + name, "profile " + profile)) {
+                profiles.add(profile);
+            } else {
+                logger.warn("Ignoring unknown configuration profile: {}", profile);
+            }
+        }
+        layers.addAll(environment, "environment");
+        layers.addAll(systemProperties, "system property");
+        return new ConfigSnapshot(layers.values, layers.sources, layers.fileKeys, profiles, layers.files);
+    }
+
+    private static String bootstrap(Map<String, String> environment, Map<String, String> systemProperties, String key) {
+        String value = systemProperties.get(key);
+        if (value == null || value.trim().isEmpty()) {
+            value = environment.get(key);
+        }
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+
+    //Value of the key, null when no layer sets it (an empty value counts as not set)
+    public String get(String key) {
+        String value = values.get(key);
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+
+    public String getString(String key, String defaultValue) {
+        String value = get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    public int getInt(String key, int defaultValue) {
+        String value = get(key);
+        if (value != null) {
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring invalid {} value: {}", key, value);
+            }
+        }
+        return defaultValue;
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = get(key);
+        return value != null ? Boolean.parseBoolean(value) : defaultValue;
+    }
+
+    //Comma separated values, empty list when the key is not set
+    public List<String> getList(String key) {
+        return split(get(key));
+    }
+
+    //Layer the key's value came from, e.g. "environment" or "profile debug", null when it is not set
+    public String getSource(String key) {
+        return get(key) != null ? sources.get(key) : null;
+    }
+
+    public List<String> getProfiles() {
+        return profiles;
+    }
+
+    //Keys set by a file, with the layer that won; the environment and system properties hold much else, so they are left out
+    public Map<String, String> getFileKeySources() {
+        Map<String, String> configured = new TreeMap<>();
+        for (String key : fileKeys) {
+            if (getSource(key) != null) {
+                configured.put(key, getSource(key));
+            }
+        }
+        return configured;
+    }
+
+    //Keys whose value differs between the two snapshots, including keys only one of them sets
+    public Set<String> changedKeys(ConfigSnapshot other) {
+        Set<String> keys = new TreeSet<>(values.keySet());
+        keys.addAll(other.values.keySet());
+        keys.removeIf(key -> Objects.equals(get(key), other.get(key)));
+        return keys;
+    }
+
+    //This snapshot with the given keys taken from a newer one, which also gives it the newer file times
+    public ConfigSnapshot withValuesOf(ConfigSnapshot newer, Set<String> keys) {
+        Map<String, String> mergedValues = new HashMap<>(values);
+        Map<String, String> mergedSources = new HashMap<>(sources);
+        Set<String> mergedFileKeys = new HashSet<>(fileKeys);
+        for (String key : keys) {
+            mergedValues.remove(key);
+            mergedSources.remove(key);
+            mergedFileKeys.remove(key);
+            if (newer.values.containsKey(key)) {
+                mergedValues.put(key, newer.values.get(key));
+                mergedSources.put(key, newer.sources.get(key));
+            }
+            if (newer.fileKeys.contains(key)) {
+                mergedFileKeys.add(key);
+            }
+        }
+        return new ConfigSnapshot(mergedValues, mergedSources, mergedFileKeys, new ArrayList<>(profiles),
+                new LinkedHashMap<>(newer.files));
+    }
+
+    //True when a file this snapshot was read from changed or disappeared, or a profile file appeared in the working directory
+    public boolean isStale() {
+        for (Map.Entry<Path, Long> file : files.entrySet()) {
+            if (lastModified(file.getKey()) != file.getValue()) {
+                return true;
+            }
+        }
+        for (String profile : profiles) {
+            Path file = Paths.get(PROFILE_DIR, profile + ".properties");
+            if (Files.isRegularFile(file) && !files.containsKey(file.toAbsolutePath())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String> split(String value) {
+        List<String> items = new ArrayList<>();
+        if (value != null) {
+            for (String item : value.split(",")) {
+                if (!item.trim().isEmpty()) {
+                    items.add(item.trim());
+                }
+            }
+        }
+        return items;
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static final class Layers {
+        private final Map<String, String> values = new HashMap<>();
+        private final Map<String, String> sources = new HashMap<>();
+        private final Set<String> fileKeys = new HashSet<>();
+        private final Map<Path, Long> files = new LinkedHashMap<>();
+
+        private boolean addFile(Path file, String source) {
+            if (!Files.isRegularFile(file)) {
+                return false;
+            }
+            Path absolute = file.toAbsolutePath();
+            files.put(absolute, lastModified(absolute));
+            try (InputStream in = Files.newInputStream(file)) {
+                addProperties(in, source);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read configuration file: " + absolute, e);
+            }
+            return true;
+        }
+
+        private boolean addResource(String name, String source) {
+            URL url = ConfigSnapshot.class.getClassLoader().getResource(name);
+            if (url == null) {
+                return false;
+            }
+            //Resources in target/test-classes are plain files, so edits to them can be picked up too
+            if ("file".equals(url.getProtocol())) {
+                try {
+                    Path file = Paths.get(url.toURI());
+                    files.put(file, lastModified(file));
+                } catch (URISyntaxException e) {
+                    logger.debug("Not watching configuration resource: {}", url);
+                }
+            }
+            try (InputStream in = url.openStream()) {
+                addProperties(in, source);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read configuration resource: " + name, e);
+            }
+            return true;
+        }
+
+        private void addProperties(InputStream in, String source) throws IOException {
+            Properties properties = new Properties();
+            try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+            for (String key : properties.stringPropertyNames()) {
+                values.put(key, properties.getProperty(key));
+                sources.put(key, source);
+                fileKeys.add(key);
+            }
+        }
+
+        private void addAll(Map<String, String> layer, String source) {
+            for (Map.Entry<String, String> entry : layer.entrySet()) {
+                if (entry.getValue() != null && !entry.getValue().trim().isEmpty()) {
+                    values.put(entry.getKey(), entry.getValue());
+                    sources.put(entry.getKey(), source);
+                }
+            }
+        }
+    }
+}
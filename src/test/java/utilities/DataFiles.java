@@ -0,0 +1,130 @@
+package utilities;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Lazy readers for test data files, one line at a time so files of any size can be streamed.
+ * ".csv": the first line holds the column names; fields may be double-quoted ("" for a quote) but
+ * cannot span lines. ".jsonl": one flat JSON object per line; a line that is not a JSON object becomes an
+ * invalid row ({@link DataRow#getError()}) so one bad line does not end the stream. Blank lines are skipped.
+ * Close the returned stream to close the file.
+ */
+public final class DataFiles {
+
+    private DataFiles() {
+    }
+
+    public static Stream<DataRow> stream(Path file) {
+        String name = file.getFileName().toString().toLowerCase();
+        try {
+            BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+            Stream<String> lines = reader.lines().onClose(() -> close(reader));
+            if (name.endsWith(".jsonl")) {
+                return jsonl(lines);
+            }
+            if (name.endsWith(".csv")) {
+                String header = reader.readLine();
+                if (header == null) {
+                    lines.close();
+                    return Stream.empty();
+                }
+                return csv(parseCsvLine(stripBom(header)), lines);
+            }
+            lines.close();
+            throw new IllegalArgumentException("Unsupported data file (expected .csv or .jsonl): " + file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read data file: " + file, e);
+        }
+    }
+
+    private static Stream<DataRow> csv(List<String> columns, Stream<String> lines) {
+        AtomicLong number = new AtomicLong();
+        return lines.filter(line -> !line.trim().isEmpty()).map(line -> {
+            List<String> fields = parseCsvLine(line);
+            Map<String, String> values = new LinkedHashMap<>();
+            for (int i = 0; i < columns.size(); i++) {
+                values.put(columns.get(i), i < fields.size() ? fields.get(i) : "");
+            }
+            return new DataRow(number.incrementAndGet(), values);
+        });
+    }
+
+    private static Stream<DataRow> jsonl(Stream<String> lines) {
+        AtomicLong number = new AtomicLong();
+        return lines.filter(line -> !line.trim().isEmpty()).map(line -> {
+            JsonObject object;
+            try {
+                object = JsonParser.parseString(line).getAsJsonObject();
+            } catch (JsonParseException | IllegalStateException e) {
+                return DataRow.invalid(number.incrementAndGet(), "Not a JSON object: " + e.getMessage());
+            }
+            Map<String, String> values = new LinkedHashMap<>();
+            for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+                JsonElement value = entry.getValue();
+                values.put(entry.getKey(), value.isJsonNull() ? "" : value.isJsonPrimitive() ? value.getAsString() : value.toString());
+            }
+            return new DataRow(number.incrementAndGet(), values);
+        });
+    }
+
+    //Fields are trimmed unless quoted
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && field.toString().trim().isEmpty()) {
+                field.setLength(0);
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == ',') {
+                fields.add(wasQuoted ? field.toString() : field.toString().trim());
+                field.setLength(0);
+                wasQuoted = false;
+            } else if (!wasQuoted) {
+                field.append(c);
+            }
+        }
+        fields.add(wasQuoted ? field.toString() : field.toString().trim());
+        return fields;
+    }
+
+    private static String stripBom(String header) {
+        return header.startsWith("\uFEFF") ? header.substring(1) : header;
+    }
+
+    private static void close(BufferedReader reader) {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package utilities;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One record of a data file: its 1-based row number (header not counted) and its values by column name.
+ * A line that could not be parsed still makes a row, without values and with the parse error.
+ */
+public final class DataRow {
+    private final long number;
+    private final Map<String, String> values;
+    private final String error;
+
+    public DataRow(long number, Map<String, String> values) {
+        this(number, values, null);
+    }
+
+    private DataRow(long number, Map<String, String> values, String error) {
+        this.number = number;
+        this.values = Collections.unmodifiableMap(new LinkedHashMap<>(values));
+        this.error = error;
+    }
+
+    public static DataRow invalid(long number, String error) {
+        return new DataRow(number, Collections.emptyMap(), error);
+    }
+
+    public long getNumber() {
+        return number;
+    }
+
+    //Empty string for a missing column
+    public String get(String column) {
+        return values.getOrDefault(column, "");
+    }
+
+    public Map<String, String> getValues() {
+        return values;
+    }
+
+    //Why the line could not be parsed, null for a valid row
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return "#" + number + " " + (error != null ? "invalid: " + error : values);
+    }
+}
@@ -0,0 +1,212 @@
+package utilities;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Embedded stand-in for saucedemo.com serving the login and inventory pages from
+ * src/test/resources/swaglabs. Credentials are checked by POST /api/login with the same
+ * users and error texts as the real site. Every response can be delayed to simulate a slow backend.
+ */
+public final class LocalSwagLabsServer {
+    private static final Logger logger = LoggerFactory.getLogger(LocalSwagLabsServer.class);
+
+    public static final String LOCKED_OUT_ERROR = "Epic sadface: Sorry, this user has been locked out.";
+    public static final String NO_MATCH_ERROR = "Epic sadface: Username and password do not match any user in this service";
+    public static final String USERNAME_REQUIRED_ERROR = "Epic sadface: Username is required";
+    public static final String PASSWORD_REQUIRED_ERROR = "Epic sadface: Password is required";
+
+    //Other accounts of the real site, all using the valid password
+    private static final List<String> OTHER_USERS = Arrays.asList(
+            "problem_user", "performance_glitch_user", "error_user", "visual_user");
+
+    private static LocalSwagLabsServer instance;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final int latencyMillis;
+    private final int jitterMillis;
+    private final Map<String, byte[]> resources = new ConcurrentHashMap<>();
+
+    private LocalSwagLabsServer(int port, int latencyMillis, int jitterMillis) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        //Injected latency sleeps per request, so requests need their own threads
+        this.executor = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "swaglabs-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handleStatic);
+        server.createContext("/api/login", this::handleLogin);
+        server.start();
+    }
+
+    //Starts the server on first use; later calls return the running instance
+    public static synchronized LocalSwagLabsServer start() {
+        if (instance == null) {
+            try {
+                instance = new LocalSwagLabsServer(Config.getLocalServerPort(),
+                        Config.getLocalServerLatencyMillis(), Config.getLocalServerJitterMillis());
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to start local Swag Labs server", e);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(LocalSwagLabsServer::stop, "swaglabs-server-shutdown"));
+            logger.info("Local Swag Labs server started at {} (latency: {}ms +/- {}ms)",
+                    instance.getBaseUrl(), instance.latencyMillis, instance.jitterMillis);
+        }
+        return instance;
+    }
+
+    public static synchronized void stop() {
+        if (instance != null) {
+            instance.server.stop(0);
+            instance.executor.shutdownNow();
+            logger.info("Local Swag Labs server stopped");
+            instance = null;
+        }
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/";
+    }
+
+    //Same rules and order of checks as the real site
+    static String checkCredentials(String username, String password) {
+        if (username == null || username.isEmpty()) {
+            return USERNAME_REQUIRED_ERROR;
+        }
+        if (password == null || password.isEmpty()) {
+            return PASSWORD_REQUIRED_ERROR;
+        }
+        boolean known = username.equals(Config.VALID_USERNAME)
+                || username.equals(Config.LOCKED_USERNAME)
+                || OTHER_USERS.contains(username);
+        if (!known || !password.equals(Config.VALID_PASSWORD)) {
+            return NO_MATCH_ERROR;
+        }
+        if (username.equals(Config.LOCKED_USERNAME)) {
+            return LOCKED_OUT_ERROR;
+        }
+        return null;
+    }
+
+    private void handleStatic(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            delay();
+            String path = exchange.getRequestURI().getPath().replaceAll("/+", "/");
+            String name;
+            if (path.equals("/") || path.equals("/index.html")) {
+                name = "index.html";
+            } else if (path.startsWith(Config.INVENTORY_PAGE_ENDPOINT)) {
+                name = "inventory.html";
+            } else {
+                name = path.substring(1);
+            }
+            if (name.contains("..")) {
+                send(exchange, 404, "text/plain", "Not Found".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+
+            //Missing resources map to null, which computeIfAbsent does not store, so only existing files are cached
+            byte[] body = resources.computeIfAbsent(name, LocalSwagLabsServer::readResource);
+            if (body == null) {
+                send(exchange, 404, "text/plain", "Not Found".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            send(exchange, 200, contentType(name), body);
+        }
+    }
+
+    private void handleLogin(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            delay();
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                send(exchange, 405, "text/plain", "Method Not Allowed".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            Map<String, String> form = parseForm(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            String username = form.get("username");
+            String error = checkCredentials(username, form.get("password"));
+            logger.debug("Login attempt for user '{}': {}", username, error == null ? "accepted" : error);
+
+            if (error != null) {
+                send(exchange, 401, "application/json", ("{\"error\":\"" + error + "\"}").getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            exchange.getResponseHeaders().add("Set-Cookie",
+                    "session-username=" + URLEncoder.encode(username, StandardCharsets.UTF_8) + "; Path=/");
+            send(exchange, 200, "application/json", "{\"ok\":true}".getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private void delay() {
+        int delay = latencyMillis + (jitterMillis > 0 ? ThreadLocalRandom.current().nextInt(jitterMillis + 1) : 0);
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static Map<String, String> parseForm(String body) {
+        Map<String, String> form = new HashMap<>();
+        for (String pair : body.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                form.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return form;
+    }
+
+    //Null when there is no such resource
+    private static byte[] readResource(String name) {
+        try (InputStream in = LocalSwagLabsServer.class.getResourceAsStream("/swaglabs/" + name)) {
+            return in != null ? in.readAllBytes() : null;
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot read static resource: " + name, e);
+        }
+    }
+
+    private static String contentType(String name) {
+        if (name.endsWith(".js")) {
+            return "application/javascript";
+        }
+        if (name.endsWith(".css")) {
+            return "text/css";
+        }
+        return "text/html; charset=utf-8";
+    }
+}
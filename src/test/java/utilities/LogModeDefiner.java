@@ -0,0 +1,23 @@
+package utilities;
+
+import ch.qos.logback.core.PropertyDefinerBase;
+
+/**
+ * Logback property definer choosing between the synchronous and the asynchronous variant of an
+ * appender. LOG_MODE (system property or env var) is "async" by default; "sync" writes on the
+ * calling thread. Reads the environment directly because it runs while logback is configuring.
+ */
+public class LogModeDefiner extends PropertyDefinerBase {
+    private String appenderName;
+
+    public void setAppenderName(String appenderName) {
+        this.appenderName = appenderName;
+    }
+
+    @Override
+    public String getPropertyValue() {
+        String mode = System.getProperty("LOG_MODE", System.getenv("LOG_MODE"));
+        boolean sync = mode != null && mode.trim().equalsIgnoreCase("sync");
+        return sync ? appenderName : "ASYNC_" + appenderName;
+    }
+}
@@ -0,0 +1,186 @@
+package utilities;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Run-wide timing histograms, labelled by operation (action or lifecycle phase) and target
+ * (selector, or "*" for all targets of the operation). Exported as JSON and Prometheus text
+ * to {@link Config#METRICS_DIR} when the JVM exits.
+ */
+public final class Metrics {
+    private static final Logger logger = LoggerFactory.getLogger(Metrics.class);
+
+    public static final String ALL_TARGETS = "*";
+    private static final double[] QUANTILES = {0.5, 0.95, 0.99};
+
+    private static final Map<Key, Histogram> HISTOGRAMS = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> export(Paths.get(Config.METRICS_DIR)), "metrics-export"));
+    }
+
+    private Metrics() {
+    }
+
+    //Records into the (metric, operation, target) histogram and the (metric, operation, *) total
+    public static void record(String metric, String operation, String target, long nanos) {
+        HISTOGRAMS.computeIfAbsent(new Key(metric, operation, ALL_TARGETS), key -> new Histogram()).recordNanos(nanos);
+        if (target != null && !target.isEmpty() && !ALL_TARGETS.equals(target)) {
+            HISTOGRAMS.computeIfAbsent(new Key(metric, operation, target), key -> new Histogram()).recordNanos(nanos);
+        }
+    }
+
+    public static void time(String metric, String operation, Runnable action) {
+        long start = System.nanoTime();
+        try {
+            action.run();
+        } finally {
+            record(metric, operation, null, System.nanoTime() - start);
+        }
+    }
+
+    public static <T> T time(String metric, String operation, Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            record(metric, operation, null, System.nanoTime() - start);
+        }
+    }
+
+    public static Histogram get(String metric, String operation, String target) {
+        return HISTOGRAMS.get(new Key(metric, operation, target == null ? ALL_TARGETS : target));
+    }
+
+    //Histograms of a metric over all targets, by operation
+    public static Map<String, Histogram> byOperation(String metric) {
+        Map<String, Histogram> histograms = new TreeMap<>();
+        for (Map.Entry<Key, Histogram> entry : HISTOGRAMS.entrySet()) {
+            if (entry.getKey().metric.equals(metric) && entry.getKey().target.equals(ALL_TARGETS)) {
+                histograms.put(entry.getKey().operation, entry.getValue());
+            }
+        }
+        return histograms;
+    }
+
+    public static synchronized void export(Path directory) {
+        if (HISTOGRAMS.isEmpty()) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            Files.write(directory.resolve("metrics.json"), toJson().getBytes(StandardCharsets.UTF_8));
+            Files.write(directory.resolve("metrics.prom"), toPrometheus().getBytes(StandardCharsets.UTF_8));
+            logger.info("Timing metrics exported to: {}", directory.toAbsolutePath());
+        } catch (IOException e) {
+            logger.warn("Failed to export timing metrics to: {}", directory, e);
+        }
+    }
+
+    public static String toJson() {
+        StringBuilder json = new StringBuilder("{\n  \"metrics\": [");
+        String separator = "\n";
+        for (Map.Entry<Key, Histogram> entry : sortedEntries()) {
+            Key key = entry.getKey();
+            Histogram histogram = entry.getValue();
+            json.append(separator)
+                    .append("    {\"metric\": \"").append(escape(key.metric))
+                    .append("\", \"operation\": \"").append(escape(key.operation))
+                    .append("\", \"target\": \"").append(escape(key.target))
+                    .append("\", \"count\": ").append(histogram.getCount())
+                    .append(", \"mean_ms\": ").append(format(histogram.getMeanMillis()));
+            for (double quantile : QUANTILES) {
+                json.append(", \"p").append(Math.round(quantile * 100)).append("_ms\": ")
+                        .append(format(histogram.getPercentileMillis(quantile)));
+            }
+            json.append(", \"max_ms\": ").append(format(histogram.getMaxMillis())).append("}");
+            separator = ",\n";
+        }
+        return json.append("\n  ]\n}\n").toString();
+    }
+
+    public static String toPrometheus() {
+        StringBuilder text = new StringBuilder();
+        String previousMetric = null;
+        for (Map.Entry<Key, Histogram> entry : sortedEntries()) {
+            Key key = entry.getKey();
+            Histogram histogram = entry.getValue();
+            String name = "swaglabs_" + key.metric.replaceAll("[^a-zA-Z0-9_]", "_") + "_seconds";
+            if (!name.equals(previousMetric)) {
+                text.append("# TYPE ").append(name).append(" summary\n");
+                previousMetric = name;
+            }
+            String labels = "operation=\"" + escape(key.operation) + "\",target=\"" + escape(key.target) + "\"";
+            for (double quantile : QUANTILES) {
+                text.append(name).append('{').append(labels).append(",quantile=\"").append(quantile).append("\"} ")
+                        .append(format(histogram.getPercentileMillis(quantile) / 1_000.0)).append('\n');
+            }
+            text.append(name).append("_sum{").append(labels).append("} ")
+                    .append(format(histogram.getSumMillis() / 1_000.0)).append('\n');
+            text.append(name).append("_count{").append(labels).append("} ").append(histogram.getCount()).append('\n');
+        }
+        return text.toString();
+    }
+
+    private static List<Map.Entry<Key, Histogram>> sortedEntries() {
+        List<Map.Entry<Key, Histogram>> entries = new ArrayList<>(HISTOGRAMS.entrySet());
+        entries.sort(Comparator.comparing((Map.Entry<Key, Histogram> entry) -> entry.getKey().metric)
+                .thenComparing(entry -> entry.getKey().operation)
+                .thenComparing(entry -> entry.getKey().target));
+        return entries;
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.6f", value);
+    }
+
+    //Valid inside both JSON strings and Prometheus label values
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static final class Key {
+        private final String metric;
+        private final String operation;
+        private final String target;
+
+        private Key(String metric, String operation, String target) {
+            this.metric = metric;
+            this.operation = operation;
+            this.target = target;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return metric.equals(key.metric) && operation.equals(key.operation) && target.equals(key.target);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(metric, operation, target);
+        }
+    }
+}
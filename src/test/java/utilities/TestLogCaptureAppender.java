@@ -0,0 +1,88 @@
+package utilities;
+
+import ch.qos.logback.classic.PatternLayout;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps every event tagged with a "testId" MDC value in memory, per test. Nothing is formatted or
+ * written until the test ends: failing tests flush their buffer to a file, passing tests drop it.
+ * Each buffer keeps at most maxEvents events, dropping the oldest.
+ */
+public class TestLogCaptureAppender extends AppenderBase<ILoggingEvent> {
+    private static final String TEST_ID_KEY = "testId";
+
+    private static final Map<String, Deque<ILoggingEvent>> BUFFERS = new ConcurrentHashMap<>();
+    private static volatile PatternLayout layout;
+
+    private String pattern = "%d{HH:mm:ss.SSS} [%-5level] [%thread] %logger{36} - %msg%n";
+    private int maxEvents = 20000;
+    private boolean enabled = true;
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void setPattern(String pattern) {
+        this.pattern = pattern;
+    }
+
+    public void setMaxEvents(int maxEvents) {
+        this.maxEvents = maxEvents;
+    }
+
+    @Override
+    public void start() {
+        PatternLayout patternLayout = new PatternLayout();
+        patternLayout.setContext(getContext());
+        patternLayout.setPattern(pattern);
+        patternLayout.start();
+        layout = patternLayout;
+        super.start();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        String testId = event.getMDCPropertyMap().get(TEST_ID_KEY);
+        if (!enabled || testId == null) {
+            return;
+        }
+        event.prepareForDeferredProcessing();
+        Deque<ILoggingEvent> buffer = BUFFERS.computeIfAbsent(testId, id -> new ArrayDeque<>());
+        synchronized (buffer) {
+            if (buffer.size() >= maxEvents) {
+                buffer.removeFirst();
+            }
+            buffer.addLast(event);
+        }
+    }
+
+    //Drops the buffer of the test and returns how many events it held
+    public static int discard(String testId) {
+        Deque<ILoggingEvent> buffer = BUFFERS.remove(testId);
+        return buffer == null ? 0 : buffer.size();
+    }
+
+    //Returns the formatted lines of the test and drops its buffer
+    public static List<String> drain(String testId) {
+        Deque<ILoggingEvent> buffer = BUFFERS.remove(testId);
+        List<String> lines = new ArrayList<>();
+        PatternLayout currentLayout = layout;
+        if (buffer == null || currentLayout == null) {
+            return lines;
+        }
+        synchronized (buffer) {
+            for (ILoggingEvent event : buffer) {
+                lines.add(currentLayout.doLayout(event));
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,51 @@
+package utilities;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Virtual threads (JDK 21+) looked up by reflection, so the code still compiles for and runs on JDK 17,
+ * where a thread-per-task executor of platform threads is used instead.
+ */
+public final class VirtualThreads {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreads.class);
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isAvailable() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    //One new thread per task, named prefix-0, prefix-1, ...
+    public static ExecutorService newThreadPerTaskExecutor(String prefix) {
+        if (isAvailable()) {
+            try {
+                Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                //Methods of the public Thread.Builder interface, the builder class itself is not accessible
+                Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+                builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix + "-", 0L);
+                ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+                Method perTask = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+                return (ExecutorService) perTask.invoke(null, factory);
+            } catch (ReflectiveOperationException e) {
+                logger.warn("Virtual threads could not be created, using platform threads", e);
+            }
+        } else {
+            logger.info("Virtual threads need JDK 21+, using platform threads on JDK {}", Runtime.version().feature());
+        }
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newCachedThreadPool(task -> new Thread(task, prefix + "-" + count.getAndIncrement()));
+    }
+}
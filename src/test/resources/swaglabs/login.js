@@ -0,0 +1,52 @@
+//Login form of the Swag Labs stand-in: required fields are checked here, credentials by POST api/login
+(function () {
+    var form = document.getElementById('login_form');
+    var username = document.getElementById('user-name');
+    var password = document.getElementById('password');
+    var container = document.querySelector('.error-message-container');
+
+    function showError(message) {
+        container.className = 'error-message-container error';
+        container.innerHTML = '';
+        var heading = document.createElement('h3');
+        heading.setAttribute('data-test', 'error');
+        heading.textContent = message;
+        container.appendChild(heading);
+        username.classList.add('error');
+        password.classList.add('error');
+    }
+
+    function validateRequired(user, pass) {
+        if (!user) return 'Epic sadface: Username is required';
+        if (!pass) return 'Epic sadface: Password is required';
+        return null;
+    }
+
+    var pendingError = sessionStorage.getItem('login-error');
+    if (pendingError) {
+        sessionStorage.removeItem('login-error');
+        showError(pendingError);
+    }
+
+    form.addEventListener('submit', function (event) {
+        event.preventDefault();
+        var error = validateRequired(username.value, password.value);
+        if (error) {
+            showError(error);
+            return;
+        }
+        fetch('api/login', {
+            method: 'POST',
+            headers: {'Content-Type': 'application/x-www-form-urlencoded'},
+            body: new URLSearchParams({username: username.value, password: password.value}).toString()
+        }).then(function (response) {
+            return response.json();
+        }).then(function (result) {
+            if (result.error) {
+                showError(result.error);
+            } else {
+                location.href = 'inventory.html';
+            }
+        });
+    });
+})();